@@ -0,0 +1,141 @@
+package io.devTracker.codeTracker.Config;
+
+import io.devTracker.codeTracker.Model.Activity;
+import io.devTracker.codeTracker.Service.ActivityStorageMigrationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+/**
+ * Storage mode for the activities collection.
+ *
+ * In "standard" mode activities live in the regular "activities" collection.
+ * In "timeseries" mode they are written to a native MongoDB time-series
+ * collection (timeField=startTime, metaField=meta) which compresses buckets
+ * of activities per user/project/language and scans date ranges much faster.
+ * The Activity document resolves its collection name from this bean, so
+ * ActivityRepository and MongoTemplate follow the configured mode.
+ */
+@Configuration
+public class ActivityStorageConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityStorageConfig.class);
+
+    public static final String STANDARD_COLLECTION = "activities";
+
+    @Value("${activity.storage.mode:standard}")
+    private String mode;
+
+    @Value("${activity.storage.timeseries.collection:activities_ts}")
+    private String timeSeriesCollection;
+
+    @Value("${activity.storage.timeseries.granularity:hours}")
+    private String granularity;
+
+    @Value("${activity.storage.migrate-on-startup:false}")
+    private boolean migrateOnStartup;
+
+    public boolean isTimeSeries() {
+        return "timeseries".equalsIgnoreCase(mode);
+    }
+
+    public String getCollectionName() {
+        return isTimeSeries() ? timeSeriesCollection : STANDARD_COLLECTION;
+    }
+
+    public String getTimeSeriesCollection() {
+        return timeSeriesCollection;
+    }
+
+    /**
+     * Field to filter by user on. Time-series buckets are organised by the
+     * metaField, so queries must hit meta.userId to prune buckets.
+     */
+    public String userField() {
+        return isTimeSeries() ? "meta.userId" : "userId";
+    }
+
+    public String projectField() {
+        return isTimeSeries() ? "meta.projectId" : "projectId";
+    }
+
+    /**
+     * Fills the time-series metaField on every activity before it is written.
+     */
+    @Bean
+    public BeforeConvertCallback<Activity> activityMetaCallback() {
+        return (activity, collection) -> {
+            if (isTimeSeries()) {
+                activity.setMeta(new Activity.Meta(
+                        activity.getUserId(),
+                        activity.getProjectId(),
+                        activity.getLanguage()));
+            }
+            return activity;
+        };
+    }
+
+    /**
+     * Creates the unique dedup index on the standard collection, or the
+     * time-series collection when that mode is enabled, and optionally
+     * migrates existing activities into it.
+     */
+    @Bean
+    public ApplicationRunner activityStorageInitializer(MongoTemplate mongoTemplate,
+                                                        ActivityStorageMigrationService migrationService) {
+        return args -> {
+            if (!isTimeSeries()) {
+                ensureDedupIndex(mongoTemplate);
+                return;
+            }
+            ensureTimeSeriesCollection(mongoTemplate);
+            if (migrateOnStartup) {
+                migrationService.migrateToTimeSeries();
+            }
+        };
+    }
+
+    private void ensureDedupIndex(MongoTemplate mongoTemplate) {
+        try {
+            mongoTemplate.indexOps(STANDARD_COLLECTION).createIndex(new Index()
+                    .on("userId", Sort.Direction.ASC)
+                    .on("sessionId", Sort.Direction.ASC)
+                    .on("file", Sort.Direction.ASC)
+                    .on("startTime", Sort.Direction.ASC)
+                    .unique()
+                    .named("uniq_user_session_file_start"));
+        } catch (RuntimeException e) {
+            // MongoDB unavailable, or existing duplicates block the index
+            logger.warn("Could not create activity dedup index: {}", e.getMessage());
+        }
+    }
+
+    public void ensureTimeSeriesCollection(MongoTemplate mongoTemplate) {
+        if (mongoTemplate.collectionExists(timeSeriesCollection)) {
+            return;
+        }
+
+        logger.info("Creating time-series collection {} (granularity={})", timeSeriesCollection, granularity);
+        mongoTemplate.createCollection(timeSeriesCollection, CollectionOptions.empty().timeSeries(
+                CollectionOptions.TimeSeriesOptions.timeSeries("startTime")
+                        .metaField("meta")
+                        .granularity(Granularity.valueOf(granularity.toUpperCase()))));
+
+        // Secondary index for project-scoped range queries; MongoDB already
+        // indexes { meta, startTime } on new time-series collections.
+        mongoTemplate.indexOps(timeSeriesCollection).createIndex(new Index()
+                .on("meta.userId", Sort.Direction.ASC)
+                .on("meta.projectId", Sort.Direction.ASC)
+                .on("startTime", Sort.Direction.ASC)
+                .named("meta_user_project_start"));
+    }
+}
@@ -1,28 +1,99 @@
 package io.devTracker.codeTracker.Config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.devTracker.codeTracker.Repository.CacheStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
-import java.util.Arrays;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
+/**
+ * Bounded Caffeine caches.
+ *
+ * Every cache has a maximum weight, a TTL and an optional refresh-after-write
+ * interval, overridable per cache with cache.&lt;name&gt;.max-weight,
+ * cache.&lt;name&gt;.ttl and cache.&lt;name&gt;.refresh-after-write. Values are
+ * weighed by their element count so list-valued caches are bounded by the
+ * number of items they hold. Statistics are recorded and bound to Micrometer
+ * by Spring Boot's cache metrics support.
+ *
+ * When {@link CacheStore} tiers are available (cache.redis.enabled=true,
+ * cache.mmap.enabled=true) caches are built as {@link TieredCache}s with the
+ * local cache as L1 and every tier that handles the cache below it;
+ * cache.&lt;name&gt;.tiered=false keeps a cache in memory only.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    /**
+     * Default settings per cache: max weight, TTL, refresh-after-write (or null).
+     */
+    private record CacheSpec(String name, long maxWeight, Duration ttl, Duration refreshAfterWrite, boolean tiered) {}
+
+    private static final List<CacheSpec> DEFAULTS = List.of(
+        new CacheSpec("overview", 10_000, Duration.ofMinutes(10), Duration.ofMinutes(1), true),
+        new CacheSpec("projects", 50_000, Duration.ofMinutes(10), null, true),
+        new CacheSpec("activityDays", 500_000, Duration.ofHours(6), null, true),
+        new CacheSpec("heatmap", 100_000, Duration.ofHours(1), Duration.ofMinutes(10), true),
+        new CacheSpec("summary", 10_000, Duration.ofMinutes(10), Duration.ofMinutes(1), true),
+        new CacheSpec("dataVersions", 100_000, Duration.ofSeconds(10), null, true)
+    );
+
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(Environment environment, ObjectProvider<CacheStore> cacheStores,
+                                     ObjectProvider<CacheInvalidationBus> invalidationBus, MeterRegistry meterRegistry,
+                                     @Qualifier("cacheRefreshExecutor") Executor refreshExecutor) {
+        List<CacheStore> lowerTiers = cacheStores.orderedStream().toList();
+        CacheValueSerializer serializer = new CacheValueSerializer();
+
+        List<RefreshingCaffeineCache> caches = new ArrayList<>();
+        for (CacheSpec defaults : DEFAULTS) {
+            String prefix = "cache." + defaults.name() + ".";
+            long maxWeight = environment.getProperty(prefix + "max-weight", Long.class, defaults.maxWeight());
+            Duration ttl = environment.getProperty(prefix + "ttl", Duration.class, defaults.ttl());
+            Duration refresh = environment.getProperty(prefix + "refresh-after-write", Duration.class, defaults.refreshAfterWrite());
+            boolean tiered = environment.getProperty(prefix + "tiered", Boolean.class, defaults.tiered());
+
+            Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                    .maximumWeight(maxWeight)
+                    .weigher(ELEMENT_COUNT_WEIGHER)
+                    .expireAfterWrite(ttl)
+                    .recordStats();
+            List<CacheStore> tiers = lowerTiers.stream().filter(tier -> tier.handles(defaults.name())).toList();
+            if (tiered && !tiers.isEmpty()) {
+                caches.add(new TieredCache(defaults.name(), builder.build(), ttl, refresh, refreshExecutor,
+                        tiers, serializer, invalidationBus.getIfAvailable(), meterRegistry));
+            } else {
+                caches.add(new RefreshingCaffeineCache(defaults.name(), builder.build(), refresh, refreshExecutor, meterRegistry));
+            }
+        }
+
         SimpleCacheManager cacheManager = new SimpleCacheManager();
-        cacheManager.setCaches(Arrays.asList(
-            new ConcurrentMapCache("overview"),
-            new ConcurrentMapCache("projects"),
-            new ConcurrentMapCache("projectActivities"),
-            new ConcurrentMapCache("heatmap"),
-            new ConcurrentMapCache("github")
-        ));
+        cacheManager.setCaches(caches);
         return cacheManager;
     }
+
+    private static final Weigher<Object, Object> ELEMENT_COUNT_WEIGHER = (key, value) -> {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Math.max(1, map.size());
+        }
+        return 1;
+    };
 }
\ No newline at end of file
@@ -0,0 +1,248 @@
+package io.devTracker.codeTracker.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Broadcasts cache invalidations between nodes over Redis pub/sub.
+ *
+ * Messages are "nodeId|E|cache|key" for a single key, "nodeId|P|cache|prefix"
+ * for all keys with a prefix and "nodeId|C|cache" for a whole cache; a node
+ * ignores its own messages. Pub/sub is
+ * fire-and-forget, so a node that misses a message serves its L1 copy until
+ * the entry expires.
+ *
+ * Every message is also appended to a capped Redis stream (the invalidation
+ * log, cache.redis.invalidation-log-size entries), whose ids serve as
+ * epochs: a node-local tier that persists across restarts records the last
+ * id it has applied and catches up from the log on startup.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    static final String CHANNEL = "cache:invalidations";
+    static final String LOG = "cache:invalidations:log";
+
+    private static final int LOG_BATCH = 1000;
+
+    /**
+     * A logged invalidation: type E (key), P (prefix) or C (whole cache),
+     * with the key or prefix, or null for C.
+     */
+    public record Invalidation(String type, String cacheName, String key) {}
+
+    @Value("${cache.redis.invalidation-log-size:100000}")
+    private long logSize;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    private final Counter published;
+    private final Counter received;
+
+    public CacheInvalidationBus(RedisConnectionFactory connectionFactory, ObjectProvider<CacheManager> cacheManager,
+                                MeterRegistry meterRegistry) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(connectionFactory);
+        this.listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        this.cacheManager = cacheManager;
+        this.published = meterRegistry.counter("cache.invalidations", "direction", "published");
+        this.received = meterRegistry.counter("cache.invalidations", "direction", "received");
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.afterPropertiesSet();
+        subscribe();
+    }
+
+    /**
+     * Re-subscribes when Redis was unavailable at startup or the subscription
+     * was lost.
+     */
+    @Scheduled(fixedDelayString = "${cache.redis.resubscribe-interval:30000}")
+    public void ensureSubscribed() {
+        if (!listenerContainer.isListening()) {
+            subscribe();
+        }
+    }
+
+    private void subscribe() {
+        try {
+            listenerContainer.start();
+            logger.info("Cache invalidation bus listening on channel {} as node {}", CHANNEL, nodeId);
+        } catch (RuntimeException e) {
+            // Keep serving from L1; TTLs bound staleness until the subscription is back
+            listenerContainer.stop();
+            logger.warn("Could not subscribe to cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        listenerContainer.destroy();
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(nodeId + "|E|" + cacheName + "|" + key);
+    }
+
+    public void publishEvictPrefix(String cacheName, String prefix) {
+        publish(nodeId + "|P|" + cacheName + "|" + prefix);
+    }
+
+    public void publishClear(String cacheName) {
+        publish(nodeId + "|C|" + cacheName);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isListening() {
+        return listenerContainer.isListening();
+    }
+
+    /**
+     * Id of the newest logged invalidation, "0-0" if there is none, or null
+     * if Redis cannot be reached.
+     */
+    public String lastLogId() {
+        try {
+            List<MapRecord<String, Object, Object>> last = redisTemplate.opsForStream()
+                    .reverseRange(LOG, Range.unbounded(), Limit.limit().count(1));
+            return last == null || last.isEmpty() ? "0-0" : last.get(0).getId().getValue();
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the cache invalidation log: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Invalidations logged after the given id, oldest first; null if the log
+     * no longer reaches back that far (it was trimmed or Redis was reset), so
+     * that invalidations may be missing, or if it cannot be read.
+     */
+    public List<Invalidation> logSince(String id) {
+        try {
+            List<MapRecord<String, Object, Object>> first = redisTemplate.opsForStream()
+                    .range(LOG, Range.unbounded(), Limit.limit().count(1));
+            if (first == null || first.isEmpty()) {
+                return "0-0".equals(id) ? List.of() : null;
+            }
+            if (compareIds(first.get(0).getId().getValue(), id) > 0) {
+                return null;
+            }
+
+            List<Invalidation> invalidations = new ArrayList<>();
+            String after = id;
+            while (true) {
+                List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().range(LOG,
+                        Range.rightUnbounded(Range.Bound.exclusive(after)), Limit.limit().count(LOG_BATCH));
+                if (records == null || records.isEmpty()) {
+                    return invalidations;
+                }
+                for (MapRecord<String, Object, Object> record : records) {
+                    Invalidation invalidation = parse(String.valueOf(record.getValue().get("m")));
+                    if (invalidation != null) {
+                        invalidations.add(invalidation);
+                    }
+                    after = record.getId().getValue();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the cache invalidation log: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Orders stream ids ("millis-sequence").
+     */
+    static int compareIds(String a, String b) {
+        String[] left = a.split("-", 2);
+        String[] right = b.split("-", 2);
+        int byTime = Long.compare(Long.parseLong(left[0]), Long.parseLong(right[0]));
+        return byTime != 0 ? byTime : Long.compare(Long.parseLong(left[1]), Long.parseLong(right[1]));
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.opsForStream().add(StreamRecords.string(Map.of("m", message)).withStreamKey(LOG),
+                    RedisStreamCommands.XAddOptions.maxlen(logSize).approximateTrimming(true));
+            redisTemplate.convertAndSend(CHANNEL, message);
+            published.increment();
+        } catch (RuntimeException e) {
+            logger.warn("Could not publish cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        Invalidation invalidation = parse(body);
+        if (invalidation == null || body.startsWith(nodeId + "|")) {
+            return;
+        }
+        received.increment();
+
+        Cache cache = cacheManager.getObject().getCache(invalidation.cacheName());
+        if (!(cache instanceof TieredCache tieredCache)) {
+            return;
+        }
+        switch (invalidation.type()) {
+            case "C" -> tieredCache.clearLocal();
+            case "E" -> tieredCache.evictLocal(invalidation.key());
+            case "P" -> tieredCache.evictLocalByPrefix(invalidation.key());
+            default -> { }
+        }
+    }
+
+    private static Invalidation parse(String message) {
+        String[] parts = message.split("\\|", 4);
+        if (parts.length < 3) {
+            return null;
+        }
+        if ("C".equals(parts[1])) {
+            return new Invalidation("C", parts[2], null);
+        }
+        if (("E".equals(parts[1]) || "P".equals(parts[1])) && parts.length == 4) {
+            return new Invalidation(parts[1], parts[2], parts[3]);
+        }
+        return null;
+    }
+}
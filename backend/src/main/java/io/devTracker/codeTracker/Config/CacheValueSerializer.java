@@ -0,0 +1,64 @@
+package io.devTracker.codeTracker.Config;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+
+/**
+ * Binary encoding of cache values for the shared tiers.
+ *
+ * Values are written as Jackson Smile with type information embedded, so
+ * records and lists of records come back as the same types. Each value is
+ * wrapped in an envelope whose field is typed Object, which makes Jackson
+ * record the class of the value itself even when it is a final type such
+ * as a record. Only application and JDK types are accepted when reading.
+ * Cached nulls are stored as an empty array.
+ */
+public final class CacheValueSerializer {
+
+    private static final byte[] NULL_VALUE = new byte[0];
+
+    private record Envelope(Object value) {}
+
+    private final ObjectMapper mapper;
+
+    public CacheValueSerializer() {
+        BasicPolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("io.devTracker.codeTracker.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .allowIfSubType("java.lang.")
+                .allowIfSubTypeIsArray()
+                .build();
+        this.mapper = JsonMapper.builder(new SmileFactory())
+                .findAndAddModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .activateDefaultTyping(validator, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY)
+                .build();
+    }
+
+    public byte[] serialize(Object storeValue) throws IOException {
+        if (storeValue == null || storeValue == NullValue.INSTANCE) {
+            return NULL_VALUE;
+        }
+        return mapper.writeValueAsBytes(new Envelope(storeValue));
+    }
+
+    public Object deserialize(byte[] data) throws IOException {
+        if (data.length == 0) {
+            return NullValue.INSTANCE;
+        }
+        Envelope envelope = mapper.readValue(data, Envelope.class);
+        if (envelope.value() == null) {
+            // Written in an older format; treated as a miss by the tiers
+            throw new IOException("Unrecognized cache value");
+        }
+        return envelope.value();
+    }
+}
@@ -0,0 +1,62 @@
+package io.devTracker.codeTracker.Config;
+
+import io.devTracker.codeTracker.Model.User;
+import io.devTracker.codeTracker.Service.DataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Answers conditional GETs on the user's read endpoints from the per-user
+ * data version, before the controller runs.
+ *
+ * The strong ETag combines the user, the data version and the current date,
+ * which bounds the only relative windows these endpoints have: the
+ * overview's week and month counts, whole days ending today, which move at
+ * midnight without any write (its cache key carries the day as well, so the
+ * body matches the tag). Endpoints with rolling windows such as
+ * /api/reports/summary (now minus a period) change continuously and are not
+ * routed here; see WebConfig. Last-Modified is the later of the last write
+ * and the start of today. Responses are marked private, no-cache so
+ * browsers keep them but always revalidate.
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            return true;
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate today = LocalDate.now(zone);
+        DataVersionService.DataVersion version = dataVersionService.getVersion(user.getId());
+
+        String etag = "\"" + Integer.toHexString(user.getId().hashCode()) + "-" + version.version() + "-" + today.toEpochDay() + "\"";
+        long startOfToday = today.atStartOfDay(zone).toInstant().toEpochMilli();
+        long lastModified = version.modifiedAt() != null
+                ? Math.max(version.modifiedAt().getTime(), startOfToday)
+                : startOfToday;
+
+        // Set before the security headers are written, which then leave Cache-Control alone
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return !new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+    }
+}
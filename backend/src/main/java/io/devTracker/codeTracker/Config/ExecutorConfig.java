@@ -0,0 +1,75 @@
+package io.devTracker.codeTracker.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Thread pools for background work that must not compete with request threads.
+ *
+ * The pools are not default candidates, so they are only injected by name and
+ * do not replace Spring Boot's applicationTaskExecutor.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Runs stale-while-revalidate cache refreshes. Bounded, and rejects when
+     * full so a refresh storm never queues unbounded work; the cache keeps
+     * serving the stale value and retries on a later hit.
+     */
+    @Bean(defaultCandidate = false)
+    public ThreadPoolTaskExecutor cacheRefreshExecutor(
+            @Value("${cache.refresh.pool-size:4}") int poolSize,
+            @Value("${cache.refresh.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Runs cache warm-up after login. Low thread priority so it yields to
+     * live requests; warm-ups that do not fit are dropped.
+     */
+    @Bean(defaultCandidate = false)
+    public ThreadPoolTaskExecutor cacheWarmupExecutor(
+            @Value("${cache.warmup.pool-size:2}") int poolSize,
+            @Value("${cache.warmup.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("cache-warmup-");
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Runs BCrypt hashing and verification off the request threads. Small and
+     * bounded so a burst of logins cannot use more than a few cores; work that
+     * does not fit the queue is rejected and answered with 503.
+     */
+    @Bean(defaultCandidate = false)
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${auth.password-hash.pool-size:2}") int poolSize,
+            @Value("${auth.password-hash.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -0,0 +1,94 @@
+package io.devTracker.codeTracker.Config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outbound HTTP clients for third-party upstreams.
+ *
+ * Each upstream gets a RestTemplate over a JDK HttpClient, which keeps
+ * connections alive in a pool and negotiates HTTP/2 where the server supports
+ * it. Relative URLs resolve against the upstream's base URL, so tests can
+ * point an upstream at a local mock server. Every setting can be overridden
+ * with http.upstream.&lt;name&gt;.base-url, .connect-timeout, .read-timeout,
+ * .max-concurrent and .acquire-timeout; see {@link UpstreamInterceptor} for
+ * the bulkhead and metrics.
+ *
+ * The RestTemplates are not default candidates and are injected by name.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Default settings per upstream.
+     */
+    private record UpstreamSpec(String name, String baseUrl, Duration connectTimeout, Duration readTimeout,
+                                int maxConcurrent) {}
+
+    private static final List<UpstreamSpec> DEFAULTS = List.of(
+        new UpstreamSpec("github", "https://github.com", Duration.ofSeconds(2), Duration.ofSeconds(5), 20),
+        new UpstreamSpec("github-api", "https://api.github.com", Duration.ofSeconds(2), Duration.ofSeconds(5), 50),
+        new UpstreamSpec("google-oauth", "https://oauth2.googleapis.com", Duration.ofSeconds(2), Duration.ofSeconds(5), 20),
+        new UpstreamSpec("google-api", "https://www.googleapis.com", Duration.ofSeconds(2), Duration.ofSeconds(5), 20)
+    );
+
+    private static final Duration DEFAULT_ACQUIRE_TIMEOUT = Duration.ofMillis(100);
+
+    @Bean(defaultCandidate = false)
+    public RestTemplate githubRestTemplate(RestTemplateBuilder builder, Environment environment, MeterRegistry meterRegistry) {
+        return upstream("github", builder, environment, meterRegistry);
+    }
+
+    @Bean(defaultCandidate = false)
+    public RestTemplate githubApiRestTemplate(RestTemplateBuilder builder, Environment environment, MeterRegistry meterRegistry) {
+        return upstream("github-api", builder, environment, meterRegistry);
+    }
+
+    @Bean(defaultCandidate = false)
+    public RestTemplate googleOAuthRestTemplate(RestTemplateBuilder builder, Environment environment, MeterRegistry meterRegistry) {
+        return upstream("google-oauth", builder, environment, meterRegistry);
+    }
+
+    @Bean(defaultCandidate = false)
+    public RestTemplate googleApiRestTemplate(RestTemplateBuilder builder, Environment environment, MeterRegistry meterRegistry) {
+        return upstream("google-api", builder, environment, meterRegistry);
+    }
+
+    private RestTemplate upstream(String name, RestTemplateBuilder builder, Environment environment,
+                                  MeterRegistry meterRegistry) {
+        UpstreamSpec defaults = DEFAULTS.stream()
+                .filter(spec -> spec.name().equals(name))
+                .findFirst()
+                .orElseThrow();
+        String prefix = "http.upstream." + name + ".";
+        String baseUrl = environment.getProperty(prefix + "base-url", defaults.baseUrl());
+        Duration connectTimeout = environment.getProperty(prefix + "connect-timeout", Duration.class, defaults.connectTimeout());
+        Duration readTimeout = environment.getProperty(prefix + "read-timeout", Duration.class, defaults.readTimeout());
+        int maxConcurrent = environment.getProperty(prefix + "max-concurrent", Integer.class, defaults.maxConcurrent());
+        Duration acquireTimeout = environment.getProperty(prefix + "acquire-timeout", Duration.class, DEFAULT_ACQUIRE_TIMEOUT);
+
+        // Connect timeouts are per client in the JDK, so each upstream has its own connection pool
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        return builder
+                .requestFactory(() -> requestFactory)
+                .rootUri(baseUrl)
+                .additionalInterceptors(new UpstreamInterceptor(name, maxConcurrent, acquireTimeout, meterRegistry))
+                .build();
+    }
+}
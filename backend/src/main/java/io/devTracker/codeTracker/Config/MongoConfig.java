@@ -1,10 +1,73 @@
 package io.devTracker.codeTracker.Config;
 
+import io.devTracker.codeTracker.Model.Device;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.Duration;
 
 @Configuration
 @EnableMongoAuditing
 public class MongoConfig {
     // MongoDB auditing is enabled for automatic date field management
-}
\ No newline at end of file
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
+    /**
+     * Creates the device indexes on startup:
+     * a unique index on deviceCode for the polling lookups, userId/isActive
+     * for the devices page, and a TTL index on expiresAt limited to pending
+     * devices, so MongoDB deletes unconfirmed codes once they expire while
+     * approved devices are kept.
+     */
+    @Bean
+    public ApplicationRunner deviceIndexInitializer(MongoTemplate mongoTemplate) {
+        return args -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(Device.class);
+            try {
+                ensureIndexes(indexOps);
+            } catch (DataAccessResourceFailureException e) {
+                // Startup must not depend on MongoDB; the sweeper still removes expired codes
+                logger.warn("Could not create device indexes, MongoDB is unavailable: {}", e.getMessage());
+            }
+        };
+    }
+
+    private void ensureIndexes(IndexOperations indexOps) {
+        ensureIndex(indexOps, new Index()
+                .on("deviceCode", Sort.Direction.ASC)
+                .unique()
+                .named("deviceCode_unique"));
+        ensureIndex(indexOps, new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("isActive", Sort.Direction.ASC)
+                .named("userId_isActive"));
+        ensureIndex(indexOps, new Index()
+                .on("expiresAt", Sort.Direction.ASC)
+                .expire(Duration.ZERO)
+                .partial(PartialIndexFilter.of(Criteria.where("status").is("pending")))
+                .named("pending_expiresAt_ttl"));
+    }
+
+    private void ensureIndex(IndexOperations indexOps, Index index) {
+        try {
+            indexOps.createIndex(index);
+        } catch (DataAccessResourceFailureException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // e.g. duplicate device codes left by older versions block the unique index
+            logger.warn("Could not create index {}: {}", index.getIndexOptions().get("name"), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package io.devTracker.codeTracker.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * Caffeine cache with request coalescing and stale-while-revalidate for
+ * {@code @Cacheable(sync = true)} methods.
+ *
+ * Concurrent misses on the same key share one in-flight load: the first
+ * caller runs the method, later callers wait for its result. Caffeine's own
+ * refreshAfterWrite needs a cache-wide loader, which a Spring cache does not
+ * have. Instead, a hit on an entry older than the refresh interval still
+ * returns the cached (stale) value, and a single background refresh re-runs
+ * the method's value loader to replace it. Entry age comes from the
+ * expire-after-write policy, so a TTL must be configured.
+ *
+ * Loads are ordered with writes (evict, put, clear) through per-key-stripe
+ * write counters, like a seqlock: a load or refresh that overlaps a write of
+ * its key still answers its callers but does not keep its value, which may
+ * have been read before the write. Callers arriving after a write do not
+ * join a load that started before it.
+ */
+public class RefreshingCaffeineCache extends CaffeineCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshingCaffeineCache.class);
+
+    private static final int STRIPES = 64;
+
+    /**
+     * A load or refresh in flight, with the write stamp of its key when it started.
+     */
+    private static final class Load {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final long stamp;
+
+        Load(long stamp) {
+            this.stamp = stamp;
+        }
+    }
+
+    private final Duration refreshAfterWrite;
+    private final Executor executor;
+    private final ConcurrentMap<Object, Load> refreshing = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Load> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLongArray writesStarted = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray writesFinished = new AtomicLongArray(STRIPES);
+
+    private final Counter coalesced;
+    private final Counter staleServed;
+    private final Counter refreshSuccess;
+    private final Counter refreshFailure;
+    private final Counter refreshRejected;
+    private final Counter discarded;
+
+    public RefreshingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                   Duration refreshAfterWrite, Executor executor, MeterRegistry meterRegistry) {
+        super(name, cache, true);
+        this.refreshAfterWrite = refreshAfterWrite;
+        this.executor = executor;
+        this.coalesced = meterRegistry.counter("cache.coalesced", "cache", name);
+        this.staleServed = meterRegistry.counter("cache.stale.served", "cache", name);
+        this.refreshSuccess = meterRegistry.counter("cache.refreshes", "cache", name, "result", "success");
+        this.refreshFailure = meterRegistry.counter("cache.refreshes", "cache", name, "result", "failure");
+        this.refreshRejected = meterRegistry.counter("cache.refreshes", "cache", name, "result", "rejected");
+        this.discarded = meterRegistry.counter("cache.loads.discarded", "cache", name);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object stored = getNativeCache().getIfPresent(key);
+        if (stored == null) {
+            return (T) fromStoreValue(loadOnce(key, valueLoader));
+        }
+        if (refreshAfterWrite != null && isDueForRefresh(key)) {
+            staleServed.increment();
+            Load refresh = new Load(writeStamp(key));
+            if (refreshing.putIfAbsent(key, refresh) == null) {
+                scheduleRefresh(key, stored, refresh, valueLoader);
+            }
+        }
+        return (T) fromStoreValue(stored);
+    }
+
+    public Duration getRefreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        beginWrite(key);
+        try {
+            super.put(key, value);
+        } finally {
+            endWrite(key);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        beginWrite(key);
+        try {
+            return super.putIfAbsent(key, value);
+        } finally {
+            endWrite(key);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        beginWrite(key);
+        try {
+            super.evict(key);
+        } finally {
+            endWrite(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        beginWrite(key);
+        try {
+            return super.evictIfPresent(key);
+        } finally {
+            endWrite(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        beginWriteAll(key -> true);
+        try {
+            super.clear();
+        } finally {
+            endWriteAll();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        beginWriteAll(key -> true);
+        try {
+            return super.invalidate();
+        } finally {
+            endWriteAll();
+        }
+    }
+
+    /**
+     * Evicts every entry whose key starts with the prefix.
+     */
+    public void evictByPrefix(String prefix) {
+        beginWriteAll(key -> String.valueOf(key).startsWith(prefix));
+        try {
+            getNativeCache().asMap().keySet().removeIf(key -> String.valueOf(key).startsWith(prefix));
+        } finally {
+            endWriteAll();
+        }
+    }
+
+    /**
+     * Looks for a key missing from this cache in slower storage before the
+     * value loader is run.
+     *
+     * @return the store value, or null if the loader must run
+     */
+    protected Object findStored(Object key) {
+        return null;
+    }
+
+    /**
+     * Called after a value produced by the value loader was stored for a key.
+     */
+    protected void loaded(Object key, Object value) {
+    }
+
+    /**
+     * Called after a background refresh replaced the value of a key.
+     */
+    protected void refreshed(Object key, Object value) {
+    }
+
+    /**
+     * Called when a value read by a load or refresh overlapped a write of
+     * the key and was not kept, or was taken back out of this cache.
+     */
+    protected void discarded(Object key) {
+    }
+
+    /**
+     * Marks the start of a write of a key. Subclasses that write other tiers
+     * wrap the whole write in beginWrite/endWrite, before touching any tier.
+     */
+    protected void beginWrite(Object key) {
+        writesStarted.incrementAndGet(stripe(key));
+        // Callers arriving from now on must not join a load that read the old value
+        Load load = inFlight.get(key);
+        if (load != null) {
+            inFlight.remove(key, load);
+        }
+    }
+
+    protected void endWrite(Object key) {
+        writesFinished.incrementAndGet(stripe(key));
+    }
+
+    /**
+     * Marks the start of a write of several keys; every stripe is affected.
+     */
+    protected void beginWriteAll(Predicate<Object> keys) {
+        for (int i = 0; i < STRIPES; i++) {
+            writesStarted.incrementAndGet(i);
+        }
+        inFlight.keySet().removeIf(keys);
+    }
+
+    protected void endWriteAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            writesFinished.incrementAndGet(i);
+        }
+    }
+
+    /**
+     * Stamp to take before reading a value for a key from anywhere but this
+     * cache; -1 while a write of the key's stripe is in progress.
+     */
+    protected long writeStamp(Object key) {
+        int stripe = stripe(key);
+        // Finished first: a write between the two reads makes them differ
+        long finished = writesFinished.get(stripe);
+        long started = writesStarted.get(stripe);
+        return started == finished ? started : -1;
+    }
+
+    /**
+     * Whether no write of the key's stripe started since the stamp was taken.
+     */
+    protected boolean unchangedSince(Object key, long stamp) {
+        return stamp >= 0 && writesStarted.get(stripe(key)) == stamp;
+    }
+
+    /**
+     * Puts a value read under the stamp into this cache, unless a write
+     * overlapped the read. A write that starts after the check also clears
+     * what was put, so the stamp is checked again afterwards and the value
+     * taken back out if one started in between.
+     *
+     * @param stored called after the put, e.g. to write other tiers
+     * @return whether the value was kept
+     */
+    protected boolean putIfUnchanged(Object key, Object storeValue, long stamp, Runnable stored) {
+        if (!unchangedSince(key, stamp)) {
+            discarded(key);
+            discarded.increment();
+            return false;
+        }
+        getNativeCache().put(key, storeValue);
+        stored.run();
+        if (!unchangedSince(key, stamp)) {
+            discard(key, storeValue);
+            return false;
+        }
+        return true;
+    }
+
+    private static int stripe(Object key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    /**
+     * Loads a missing key, sharing the load with concurrent callers.
+     */
+    private Object loadOnce(Object key, Callable<?> valueLoader) {
+        Load load = new Load(writeStamp(key));
+        Load existing = inFlight.putIfAbsent(key, load);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.result.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        try {
+            // A load that finished just before ours registered may already have filled the cache
+            Object storeValue = getNativeCache().policy().getIfPresentQuietly(key);
+            if (storeValue == null) {
+                storeValue = findStored(key);
+                if (storeValue != null) {
+                    putIfUnchanged(key, storeValue, load.stamp, () -> {});
+                } else {
+                    Object value = valueLoader.call();
+                    storeValue = toStoreValue(value);
+                    putIfUnchanged(key, storeValue, load.stamp, () -> loaded(key, value));
+                }
+            }
+            load.result.complete(storeValue);
+            return storeValue;
+        } catch (Exception e) {
+            load.result.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    private void discard(Object key, Object storeValue) {
+        getNativeCache().asMap().remove(key, storeValue);
+        discarded(key);
+        discarded.increment();
+    }
+
+    private boolean isDueForRefresh(Object key) {
+        return getNativeCache().policy().expireAfterWrite()
+                .flatMap(policy -> policy.ageOf(key))
+                .map(age -> age.compareTo(refreshAfterWrite) >= 0)
+                .orElse(false);
+    }
+
+    private void scheduleRefresh(Object key, Object stale, Load refresh, Callable<?> valueLoader) {
+        try {
+            executor.execute(() -> refresh(key, stale, refresh, valueLoader));
+        } catch (RejectedExecutionException e) {
+            // Refresh pool saturated: keep serving the stale value, a later hit retries
+            refreshing.remove(key, refresh);
+            refreshRejected.increment();
+        }
+    }
+
+    private void refresh(Object key, Object stale, Load refresh, Callable<?> valueLoader) {
+        try {
+            Object value = valueLoader.call();
+            Object storeValue = toStoreValue(value);
+            if (!unchangedSince(key, refresh.stamp)) {
+                discarded.increment();
+            } else if (getNativeCache().asMap().replace(key, stale, storeValue)) {
+                // Only the entry the refresh was started for is replaced, never a newer one
+                refreshed(key, value);
+                if (!unchangedSince(key, refresh.stamp)) {
+                    discard(key, storeValue);
+                }
+            }
+            refreshSuccess.increment();
+        } catch (Exception e) {
+            refreshFailure.increment();
+            logger.warn("Background refresh of {} in cache {} failed: {}", key, getName(), e.getMessage());
+        } finally {
+            refreshing.remove(key, refresh);
+        }
+    }
+}
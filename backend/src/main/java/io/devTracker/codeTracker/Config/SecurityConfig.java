@@ -4,8 +4,11 @@ import io.devTracker.codeTracker.Model.User;
 import io.devTracker.codeTracker.Repository.UserRepository;
 import io.devTracker.codeTracker.Security.JwtUtil;
 import io.devTracker.codeTracker.Security.JwtAuthenticationFilter;
+import io.devTracker.codeTracker.Security.GoogleIdTokenVerifier;
+import io.devTracker.codeTracker.Security.PrincipalCache;
 import io.devTracker.codeTracker.Security.RateLimitingFilter;
 import org.springframework.core.env.Environment;
+import io.devTracker.codeTracker.Service.CacheWarmupService;
 import io.devTracker.codeTracker.Service.RateLimitService;
 
 // import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +16,7 @@ import io.devTracker.codeTracker.Service.RateLimitService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -52,6 +56,15 @@ public class SecurityConfig {
     @Autowired
     private Environment env;
 
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private GoogleIdTokenVerifier googleIdTokenVerifier;
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -122,6 +135,8 @@ SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
     JwtAuthenticationFilter jwtFilter = new JwtAuthenticationFilter(
         jwtUtil,
         userRepository,
+        principalCache,
+        googleIdTokenVerifier,
         environment.getProperty("spring.security.oauth2.client.registration.google.client-id")
     );
     http.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
@@ -199,10 +214,12 @@ AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler() {
             user.setProvider(registrationId);
             user.setName(name);
             user = userRepository.save(user);
+            principalCache.invalidate(user.getId());
         }
 
         // Generate a JWT token for the user
         String token = jwtUtil.generateToken(user.getId(), user.getEmail());
+        cacheWarmupService.warmUp(user);
 
         // Redirect to the frontend with the JWT token
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("http://localhost:3000/auth/callback");
@@ -231,8 +248,8 @@ AuthenticationFailureHandler oAuth2AuthenticationFailureHandler() {
 
 
 @Bean
-PasswordEncoder passwordEncoder(){
-    return new BCryptPasswordEncoder();
+PasswordEncoder passwordEncoder(@Value("${auth.password-hash.bcrypt-strength:10}") int strength){
+    return new BCryptPasswordEncoder(strength);
 }
 
 }
@@ -0,0 +1,422 @@
+package io.devTracker.codeTracker.Config;
+
+import io.devTracker.codeTracker.Repository.CacheStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Local Caffeine cache (L1) in front of one or more lower tiers such as a
+ * memory-mapped file on the node and Redis shared between nodes.
+ *
+ * Reads fall through L1 and the lower tiers in order, promoting hits upwards;
+ * loaded and refreshed values are written through to every tier. Only
+ * writes and evictions (put, evict, clear, invalidate) are broadcast on the
+ * invalidation bus, so other nodes drop their L1 and node-local copies and
+ * re-read the shared tier; loads and refreshes reach them through the
+ * shared tier once their own copies expire. A failing lower tier is logged
+ * and skipped, so the cache degrades to L1 only.
+ */
+public class TieredCache extends RefreshingCaffeineCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredCache.class);
+
+    private final List<CacheStore> lowerTiers;
+    private final Duration ttl;
+    private final CacheValueSerializer serializer;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Counter[] hits;
+    private final Counter[] misses;
+    private final Counter[] errors;
+
+    public TieredCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                       Duration ttl, Duration refreshAfterWrite, Executor executor,
+                       List<CacheStore> lowerTiers, CacheValueSerializer serializer,
+                       CacheInvalidationBus invalidationBus, MeterRegistry meterRegistry) {
+        super(name, cache, refreshAfterWrite, executor, meterRegistry);
+        this.lowerTiers = List.copyOf(lowerTiers);
+        this.ttl = ttl;
+        this.serializer = serializer;
+        this.invalidationBus = invalidationBus;
+
+        this.hits = new Counter[lowerTiers.size()];
+        this.misses = new Counter[lowerTiers.size()];
+        this.errors = new Counter[lowerTiers.size()];
+        for (int i = 0; i < lowerTiers.size(); i++) {
+            String tier = lowerTiers.get(i).type();
+            hits[i] = meterRegistry.counter("cache.tier.gets", "cache", name, "tier", tier, "result", "hit");
+            misses[i] = meterRegistry.counter("cache.tier.gets", "cache", name, "tier", tier, "result", "miss");
+            errors[i] = meterRegistry.counter("cache.tier.errors", "cache", name, "tier", tier);
+        }
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        if (value == null) {
+            long stamp = writeStamp(key);
+            value = readLowerTiers(key);
+            if (value != null) {
+                putIfUnchanged(key, value, stamp, () -> {});
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Looks up several keys at once: L1 first, then each lower tier with one
+     * batched read for the keys still missing, promoting hits upwards.
+     *
+     * @return the values found, by key; missing keys are absent
+     */
+    public Map<String, Object> getAllPresent(List<String> keys) {
+        Map<String, Object> found = new HashMap<>();
+        getNativeCache().getAllPresent(keys).forEach((key, value) -> found.put((String) key, value));
+        List<String> missing = new ArrayList<>();
+        Map<String, Long> stamps = new HashMap<>();
+        for (String key : keys) {
+            if (!found.containsKey(key)) {
+                missing.add(key);
+                stamps.put(key, writeStamp(key));
+            }
+        }
+
+        for (int i = 0; i < lowerTiers.size() && !missing.isEmpty(); i++) {
+            CacheStore tier = lowerTiers.get(i);
+            List<byte[]> values;
+            try {
+                values = tier.getAll(getName(), missing);
+            } catch (RuntimeException e) {
+                errors[i].increment();
+                logger.warn("Cache tier {} read of {} keys in {} failed: {}", tier.type(), missing.size(), getName(), e.getMessage());
+                continue;
+            }
+
+            List<String> stillMissing = new ArrayList<>();
+            for (int k = 0; k < missing.size(); k++) {
+                String storeKey = missing.get(k);
+                byte[] data = values.get(k);
+                if (data == null) {
+                    misses[i].increment();
+                    stillMissing.add(storeKey);
+                    continue;
+                }
+                hits[i].increment();
+                try {
+                    Object value = serializer.deserialize(data);
+                    int tierIndex = i;
+                    putIfUnchanged(storeKey, value, stamps.get(storeKey), () -> {
+                        for (int j = 0; j < tierIndex; j++) {
+                            writeTier(j, storeKey, data);
+                        }
+                    });
+                    found.put(storeKey, value);
+                } catch (IOException | RuntimeException e) {
+                    errors[i].increment();
+                    logger.warn("Cache tier {} read of {} in {} failed: {}", tier.type(), storeKey, getName(), e.getMessage());
+                    stillMissing.add(storeKey);
+                }
+            }
+            missing = stillMissing;
+        }
+
+        found.replaceAll((key, value) -> fromStoreValue(value));
+        return found;
+    }
+
+    @Override
+    protected Object findStored(Object key) {
+        return readLowerTiers(key);
+    }
+
+    @Override
+    protected void loaded(Object key, Object value) {
+        // Not broadcast: the data did not change, so peers' copies are still good
+        writeLowerTiers(key, toStoreValue(value));
+    }
+
+    @Override
+    protected void discarded(Object key) {
+        // The overlapping write may have cleared the lower tiers before the load wrote or promoted into them
+        evictLowerTiers(key);
+    }
+
+    @Override
+    protected void refreshed(Object key, Object value) {
+        // Peers pick the refreshed value up from the shared tier when their copies expire
+        writeLowerTiers(key, toStoreValue(value));
+    }
+
+    // Writes span every tier inside one beginWrite/endWrite, so loads overlapping
+    // them do not keep a value read from a tier before it was written
+
+    @Override
+    public void put(Object key, Object value) {
+        beginWrite(key);
+        try {
+            super.put(key, value);
+            writeLowerTiers(key, toStoreValue(value));
+            publishEvict(key);
+        } finally {
+            endWrite(key);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        beginWrite(key);
+        try {
+            ValueWrapper existing = super.putIfAbsent(key, value);
+            if (existing == null) {
+                writeLowerTiers(key, toStoreValue(value));
+                publishEvict(key);
+            }
+            return existing;
+        } finally {
+            endWrite(key);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        beginWrite(key);
+        try {
+            evictLowerTiers(key);
+            super.evict(key);
+            publishEvict(key);
+        } finally {
+            endWrite(key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        beginWrite(key);
+        try {
+            evictLowerTiers(key);
+            boolean present = super.evictIfPresent(key);
+            publishEvict(key);
+            return present;
+        } finally {
+            endWrite(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        beginWriteAll(key -> true);
+        try {
+            clearLowerTiers();
+            super.clear();
+            publishClear();
+        } finally {
+            endWriteAll();
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        beginWriteAll(key -> true);
+        try {
+            clearLowerTiers();
+            boolean notEmpty = super.invalidate();
+            publishClear();
+            return notEmpty;
+        } finally {
+            endWriteAll();
+        }
+    }
+
+    @Override
+    public void evictByPrefix(String prefix) {
+        beginWriteAll(key -> String.valueOf(key).startsWith(prefix));
+        try {
+            for (int i = 0; i < lowerTiers.size(); i++) {
+                CacheStore tier = lowerTiers.get(i);
+                try {
+                    tier.evictByPrefix(getName(), prefix);
+                } catch (RuntimeException e) {
+                    errors[i].increment();
+                    logger.warn("Cache tier {} evict of prefix {} in {} failed: {}", tier.type(), prefix, getName(), e.getMessage());
+                }
+            }
+            super.evictByPrefix(prefix);
+            if (invalidationBus != null) {
+                invalidationBus.publishEvictPrefix(getName(), prefix);
+            }
+        } finally {
+            endWriteAll();
+        }
+    }
+
+    /**
+     * Drops a key from L1 and node-local tiers only, on an invalidation from another node.
+     */
+    public void evictLocal(Object key) {
+        beginWrite(key);
+        try {
+            for (int i = 0; i < lowerTiers.size(); i++) {
+                CacheStore tier = lowerTiers.get(i);
+                if (tier.isLocal()) {
+                    try {
+                        tier.evict(getName(), String.valueOf(key));
+                    } catch (RuntimeException e) {
+                        errors[i].increment();
+                        logger.warn("Cache tier {} evict of {} in {} failed: {}", tier.type(), key, getName(), e.getMessage());
+                    }
+                }
+            }
+            getNativeCache().invalidate(key);
+        } finally {
+            endWrite(key);
+        }
+    }
+
+    /**
+     * Drops all keys with the prefix from L1 and node-local tiers only, on an
+     * invalidation from another node.
+     */
+    public void evictLocalByPrefix(String prefix) {
+        beginWriteAll(key -> String.valueOf(key).startsWith(prefix));
+        try {
+            for (int i = 0; i < lowerTiers.size(); i++) {
+                CacheStore tier = lowerTiers.get(i);
+                if (tier.isLocal()) {
+                    try {
+                        tier.evictByPrefix(getName(), prefix);
+                    } catch (RuntimeException e) {
+                        errors[i].increment();
+                        logger.warn("Cache tier {} evict of prefix {} in {} failed: {}", tier.type(), prefix, getName(), e.getMessage());
+                    }
+                }
+            }
+            super.evictByPrefix(prefix);
+        } finally {
+            endWriteAll();
+        }
+    }
+
+    /**
+     * Drops all of L1 and node-local tiers only, on an invalidation from another node.
+     */
+    public void clearLocal() {
+        beginWriteAll(key -> true);
+        try {
+            for (int i = 0; i < lowerTiers.size(); i++) {
+                CacheStore tier = lowerTiers.get(i);
+                if (tier.isLocal()) {
+                    try {
+                        tier.clear(getName());
+                    } catch (RuntimeException e) {
+                        errors[i].increment();
+                        logger.warn("Cache tier {} clear of {} failed: {}", tier.type(), getName(), e.getMessage());
+                    }
+                }
+            }
+            getNativeCache().invalidateAll();
+        } finally {
+            endWriteAll();
+        }
+    }
+
+    public List<CacheStore> getLowerTiers() {
+        return lowerTiers;
+    }
+
+    private Object readLowerTiers(Object key) {
+        String storeKey = String.valueOf(key);
+        for (int i = 0; i < lowerTiers.size(); i++) {
+            CacheStore tier = lowerTiers.get(i);
+            try {
+                byte[] data = tier.get(getName(), storeKey);
+                if (data == null) {
+                    misses[i].increment();
+                    continue;
+                }
+                hits[i].increment();
+                // Promote into the faster tiers that missed
+                for (int j = 0; j < i; j++) {
+                    writeTier(j, storeKey, data);
+                }
+                return serializer.deserialize(data);
+            } catch (IOException | RuntimeException e) {
+                errors[i].increment();
+                logger.warn("Cache tier {} read of {} in {} failed: {}", tier.type(), key, getName(), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void writeLowerTiers(Object key, Object storeValue) {
+        if (lowerTiers.isEmpty()) {
+            return;
+        }
+        byte[] data;
+        try {
+            data = serializer.serialize(storeValue);
+        } catch (IOException e) {
+            logger.warn("Could not serialize value of {} in {}: {}", key, getName(), e.getMessage());
+            return;
+        }
+        String storeKey = String.valueOf(key);
+        for (int i = 0; i < lowerTiers.size(); i++) {
+            writeTier(i, storeKey, data);
+        }
+    }
+
+    private void writeTier(int index, String storeKey, byte[] data) {
+        CacheStore tier = lowerTiers.get(index);
+        try {
+            tier.put(getName(), storeKey, data, ttl);
+        } catch (RuntimeException e) {
+            errors[index].increment();
+            logger.warn("Cache tier {} write of {} in {} failed: {}", tier.type(), storeKey, getName(), e.getMessage());
+        }
+    }
+
+    private void evictLowerTiers(Object key) {
+        for (int i = 0; i < lowerTiers.size(); i++) {
+            CacheStore tier = lowerTiers.get(i);
+            try {
+                tier.evict(getName(), String.valueOf(key));
+            } catch (RuntimeException e) {
+                errors[i].increment();
+                logger.warn("Cache tier {} evict of {} in {} failed: {}", tier.type(), key, getName(), e.getMessage());
+            }
+        }
+    }
+
+    private void clearLowerTiers() {
+        for (int i = 0; i < lowerTiers.size(); i++) {
+            CacheStore tier = lowerTiers.get(i);
+            try {
+                tier.clear(getName());
+            } catch (RuntimeException e) {
+                errors[i].increment();
+                logger.warn("Cache tier {} clear of {} failed: {}", tier.type(), getName(), e.getMessage());
+            }
+        }
+    }
+
+    private void publishEvict(Object key) {
+        if (invalidationBus != null) {
+            invalidationBus.publishEvict(getName(), String.valueOf(key));
+        }
+    }
+
+    private void publishClear() {
+        if (invalidationBus != null) {
+            invalidationBus.publishClear(getName());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.devTracker.codeTracker.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulkhead and metrics for the calls to one upstream.
+ *
+ * At most max-concurrent calls are in flight; a call that cannot get a permit
+ * within the acquire timeout fails fast instead of tying up a request thread.
+ * A permit is held until the response is closed. Latency is recorded as
+ * http.client.upstream{upstream,outcome} and rejections as
+ * http.client.upstream.rejected{upstream}.
+ */
+class UpstreamInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String upstream;
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    UpstreamInterceptor(String upstream, int maxConcurrent, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.permits = new Semaphore(maxConcurrent);
+        this.acquireTimeout = acquireTimeout;
+        this.meterRegistry = meterRegistry;
+        this.rejected = meterRegistry.counter("http.client.upstream.rejected", "upstream", upstream);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        acquire();
+        long start = System.nanoTime();
+        ClientHttpResponse response = null;
+        String outcome;
+        try {
+            response = execution.execute(request, body);
+            outcome = outcome(response.getStatusCode());
+        } catch (IOException | RuntimeException e) {
+            // Nobody else will close a response whose status could not be read
+            if (response != null) {
+                response.close();
+            }
+            permits.release();
+            record(start, "IO_ERROR");
+            throw e;
+        }
+        record(start, outcome);
+        return new PermitReleasingResponse(response);
+    }
+
+    private void acquire() throws IOException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new IOException("Too many concurrent calls to upstream " + upstream);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for upstream " + upstream, e);
+        }
+    }
+
+    private void record(long start, String outcome) {
+        Timer.builder("http.client.upstream")
+                .description("Calls to third-party upstreams")
+                .tag("upstream", upstream)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status.is5xxServerError()) {
+            return "SERVER_ERROR";
+        }
+        if (status.is4xxClientError()) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+
+    private class PermitReleasingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        }
+    }
+}
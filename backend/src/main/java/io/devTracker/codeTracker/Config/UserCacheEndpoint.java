@@ -0,0 +1,90 @@
+package io.devTracker.codeTracker.Config;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.devTracker.codeTracker.Service.CacheInvalidationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Actuator endpoint to inspect the caches and evict a single user's entries.
+ *
+ * Cache keys start with the user id ("userId", "userId-2024"), which is how
+ * entries are attributed to a user. Evictions go through
+ * {@link CacheInvalidationService#userChanged}, so shared tiers and other
+ * nodes are cleared as well.
+ * /actuator/** is not authenticated, so this endpoint is only reachable over
+ * HTTP when explicitly added to management.endpoints.web.exposure.include.
+ */
+@Component
+@Endpoint(id = "usercaches")
+public class UserCacheEndpoint {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    public record CacheSummary(long estimatedSize, long weightedSize, double hitRate, long evictions) {}
+
+    @ReadOperation
+    public Map<String, CacheSummary> caches() {
+        Map<String, CacheSummary> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = cache.getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                long weightedSize = nativeCache.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(nativeCache.estimatedSize()))
+                        .orElse(nativeCache.estimatedSize());
+                result.put(name, new CacheSummary(nativeCache.estimatedSize(), weightedSize, stats.hitRate(), stats.evictionCount()));
+            }
+        }
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, List<String>> userEntries(@Selector String userId) {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            List<String> keys = userKeys(cacheManager.getCache(name), userId);
+            if (!keys.isEmpty()) {
+                result.put(name, keys);
+            }
+        }
+        return result;
+    }
+
+    @DeleteOperation
+    public Map<String, Integer> evictUser(@Selector String userId) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            result.put(name, userKeys(cacheManager.getCache(name), userId).size());
+        }
+        cacheInvalidationService.userChanged(userId);
+        return result;
+    }
+
+    private static List<String> userKeys(Cache cache, String userId) {
+        if (!(cache instanceof CaffeineCache caffeineCache)) {
+            return List.of();
+        }
+        return caffeineCache.getNativeCache().asMap().keySet().stream()
+                .map(String::valueOf)
+                .filter(key -> key.equals(userId) || key.startsWith(userId + "-"))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
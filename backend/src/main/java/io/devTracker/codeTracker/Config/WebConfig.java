@@ -0,0 +1,24 @@
+package io.devTracker.codeTracker.Config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ConditionalGetInterceptor conditionalGetInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Read endpoints whose responses depend only on the user's data version
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/api/overview", "/api/reports/**", "/api/projects", "/api/projects/**")
+                // Versioned report snapshots carry their own immutable caching; the
+                // period summary is a rolling window that changes without any write
+                .excludePathPatterns("/api/reports/heatmap/*/v/*", "/api/reports/summary/month/*/v/*",
+                        "/api/reports/summary");
+    }
+}
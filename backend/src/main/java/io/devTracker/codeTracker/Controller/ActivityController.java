@@ -1,10 +1,14 @@
 package io.devTracker.codeTracker.Controller;
 
+import io.devTracker.codeTracker.Security.JwtAuthenticationFilter;
+import io.devTracker.codeTracker.Security.RateLimitingFilter;
 import io.devTracker.codeTracker.Service.ActivityService;
+import io.devTracker.codeTracker.Service.DeviceHeartbeatService;
 import io.devTracker.codeTracker.Model.User;
 import  io.devTracker.codeTracker.Dto.ActivityDTO;
 import io.devTracker.codeTracker.Model.Activity;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -28,6 +32,9 @@ public class ActivityController {
     @Autowired
     private ActivityService activityService;
 
+    @Autowired
+    private DeviceHeartbeatService deviceHeartbeatService;
+
     /**
     * Helper method to convert Activity model to ActivityResponse DTO.
     */
@@ -58,10 +65,19 @@ public class ActivityController {
     @PostMapping("/bulk")
     public ResponseEntity<List<ActivityDTO.ActivityResponse>> submitActivities(
             @RequestBody ActivityDTO.SubmitActivitiesRequest req,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal User user,
+            @RequestAttribute(name = JwtAuthenticationFilter.DEVICE_ID_ATTRIBUTE, required = false) String deviceId,
+            HttpServletRequest request) {
         
+        deviceHeartbeatService.recordHeartbeat(deviceId);
+        // Rate limiting charges by stored items; a failed batch counts as all rejected
+        if (!RateLimitingFilter.recordItems(request, req.activities().size())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+
         // Save the submitted activities for the authenticated user
         List<Activity> savedActivities = activityService.submitActivities(req.activities(), user);
+        request.setAttribute(RateLimitingFilter.ACCEPTED_ITEMS_ATTRIBUTE, savedActivities.size());
 
         // Convert model to DTO for response
         List<ActivityDTO.ActivityResponse> responses = savedActivities.stream()
@@ -77,8 +93,15 @@ public class ActivityController {
     @PostMapping("/batch")
     public ResponseEntity<List<ActivityDTO.ActivityResponse>> submitBatchActivities(
             @RequestBody List<ActivityDTO.ActivityRequest> activities,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal User user,
+            @RequestAttribute(name = JwtAuthenticationFilter.DEVICE_ID_ATTRIBUTE, required = false) String deviceId,
+            HttpServletRequest request) {
         
+        deviceHeartbeatService.recordHeartbeat(deviceId);
+        if (!RateLimitingFilter.recordItems(request, activities.size())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+
         System.out.println("Received batch activities request. User: " + user.getId());
         System.out.println("Number of activities: " + activities.size());
         activities.forEach(act -> System.out.println("Activity: projectName=" + act.projectName() 
@@ -86,6 +109,7 @@ public class ActivityController {
             + ", endTime=" + act.endTime()));
         
         List<Activity> savedActivities = activityService.submitBatchActivities(activities, user);
+        request.setAttribute(RateLimitingFilter.ACCEPTED_ITEMS_ATTRIBUTE, savedActivities.size());
         System.out.println("Saved " + savedActivities.size() + " activities");
         
         List<ActivityDTO.ActivityResponse> responses = savedActivities.stream()
@@ -16,6 +16,7 @@ import java.util.Optional;
 import io.devTracker.codeTracker.Model.User;
 import io.devTracker.codeTracker.Dto.UserDTO;
 import io.devTracker.codeTracker.Service.AuthService;
+import io.devTracker.codeTracker.Service.PasswordHashingService;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -97,5 +98,14 @@ public class AuthController {
         // Return user details with HTTP 200 OK
         return ResponseEntity.ok(user);
     }
+
+    // Password hashing is saturated: ask the client to back off instead of queueing
+    @ExceptionHandler(PasswordHashingService.BusyException.class)
+    public ResponseEntity<?> passwordHashingBusy(PasswordHashingService.BusyException e) {
+        logger.warn("Rejected auth request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("error", "Server busy, please retry"));
+    }
     
 }
@@ -9,13 +9,16 @@ import io.devTracker.codeTracker.Model.User;
 import io.devTracker.codeTracker.Service.DeviceAuthService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth/device")
@@ -25,6 +28,9 @@ public class DeviceAuthController {
     @Autowired
     private DeviceAuthService deviceAuthService;
 
+    @Value("${app.device-auth.long-poll-timeout:25000}")
+    private long longPollTimeoutMs;
+
     /**
      * Endpoint for the frontend to check if a user has any active devices.
      */
@@ -53,10 +59,40 @@ public class DeviceAuthController {
         }
     }
     
+    /**
+     * Poll for the device token
+     * POST /api/auth/device/token
+     *
+     * Long-polls: for a code tracked on this node the request is held until
+     * the device is confirmed or the poll times out, without touching the
+     * database. A timed-out poll checks the database once, in case the code
+     * was confirmed on another node.
+     */
     @PostMapping("/token")
-    public ResponseEntity<?> devicePollForToken(@RequestBody DeviceConfirmRequest request) {
-    try {
-        DeviceConfirmResponse response = deviceAuthService.devicePollForToken(request.getDeviceCode());
+    public DeferredResult<ResponseEntity<?>> devicePollForToken(@RequestBody DeviceConfirmRequest request) {
+        String deviceCode = request.getDeviceCode();
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(longPollTimeoutMs);
+        result.onTimeout(() -> result.setResult(pollDatabase(deviceCode)));
+
+        CompletableFuture<DeviceConfirmResponse> approval = deviceAuthService.awaitApproval(deviceCode);
+        if (approval == null) {
+            result.setResult(pollDatabase(deviceCode));
+        } else {
+            approval.whenComplete((response, error) -> result.setResult(toTokenResponse(response)));
+        }
+        return result;
+    }
+
+    private ResponseEntity<?> pollDatabase(String deviceCode) {
+        try {
+            return toTokenResponse(deviceAuthService.devicePollForToken(deviceCode));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> toTokenResponse(DeviceConfirmResponse response) {
         if (response == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Device code not found or expired"));
@@ -68,11 +104,7 @@ public class DeviceAuthController {
         }
         // Approved: Return JWT token
         return ResponseEntity.ok(Map.of("accessToken", response.getAccessToken()));
-    } catch (Exception e) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", e.getMessage()));
     }
-}
 
 
 
@@ -1,23 +1,31 @@
 package io.devTracker.codeTracker.Controller;
 
+import io.devTracker.codeTracker.Dto.ReportDTO;
 import io.devTracker.codeTracker.Model.Activity;
+import io.devTracker.codeTracker.Model.ReportSnapshot;
 import io.devTracker.codeTracker.Model.User;
-import io.devTracker.codeTracker.Repository.ActivityRepository;
+import io.devTracker.codeTracker.Service.ActivityService;
+import io.devTracker.codeTracker.Service.ReportService;
+import io.devTracker.codeTracker.Service.ReportSnapshotService;
 
-import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.net.URI;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 
 
@@ -25,27 +33,13 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/reports")
 public class ReportController {
     @Autowired
-    private ActivityRepository activityRepository;
+    private ActivityService activityService;
 
-    /**
-    * Utility method to calculate the start date of a period based on the string value.
-    * Supports "day", "week" (default), and "month".
-    */
-    private Date getPeriodStart(String period) {
-        Calendar cal = Calendar.getInstance();
-        switch (period) {
-            case "day":
-                cal.add(Calendar.DAY_OF_YEAR, -1);
-                break;
-            case "month":
-                cal.add(Calendar.MONTH, -1);
-                break;
-            default:  // "week"
-                cal.add(Calendar.WEEK_OF_YEAR, -1);
-                break;
-        }
-        return cal.getTime();
-    }
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
 
       /**
     * Returns a summary of user's activity over a time period (day, week, or month).
@@ -58,55 +52,10 @@ public class ReportController {
     public Map<String, Object> getSummary(
             @RequestParam(defaultValue = "week") String period,
             @AuthenticationPrincipal User user) {
-
-        // Determine the start date for the requested period
-        Date from = getPeriodStart(period);
-
-        // Fetch activities for the user that occurred after the start date
-        List<Activity> filtered = activityRepository.findByUserIdAndStartTimeAfter(user.getId(), from);
-
-        // Calculate total time spent (in milliseconds)
-        long totalTime = filtered.stream()
-                .mapToLong(a -> a.getEndTime().getTime() - a.getStartTime().getTime())
-                .sum();
-
-        // Group by programming language and sum durations
-        Map<String, Long> byLanguage = filtered.stream()
-                .collect(Collectors.groupingBy(
-                        Activity::getLanguage,
-                        Collectors.summingLong(a -> a.getEndTime().getTime() - a.getStartTime().getTime())
-                ));
-
-        // Group by project name and sum durations
-        Map<String, Long> byProject = filtered.stream()
-                .collect(Collectors.groupingBy(
-                        Activity::getProjectName,
-                        Collectors.summingLong(a -> a.getEndTime().getTime() - a.getStartTime().getTime())
-                ));
-
-        // Return summary data as a JSON object
-        return Map.of(
-                "totalTime", totalTime,
-                "byLanguage", byLanguage,
-                "byProject", byProject
-        );
-    }
-
-
-    /**
-    * DTO for representing heatmap data (used in /heatmap endpoint).
-    * Each entry includes:
-    * - date (String)
-    * - activity level (int)
-    */
-    @Data
-    public static class HeatmapEntry {
-        private final String date;
-        private final int activityLevel;
+        return reportService.getSummary(user.getId(), period);
     }
 
 
-
     /**
     * Returns a list of heatmap entries representing the number of activities per day
     * for a specified year. Used for visualizing daily activity frequency.
@@ -116,30 +65,95 @@ public class ReportController {
     * @return a list of HeatmapEntry objects, each containing a date and the corresponding activity level
     */
     @GetMapping("/heatmap")
-    @Cacheable(value = "heatmap", key = "#user.id + '-' + #year")
-    public List<HeatmapEntry> getHeatmap(@RequestParam int year, @AuthenticationPrincipal User user) {
-        // Define date range: Jan 1 to Dec 31 of the given year
-        LocalDate startOfYear = LocalDate.of(year, 1, 1);
-        LocalDate endOfYear = LocalDate.of(year, 12, 31);
-
-        // Fetch user activities within the given year
-        List<Activity> activities = activityRepository.findByUserIdAndStartTimeBetween(
-                user.getId(),
-                Date.from(startOfYear.atStartOfDay(ZoneId.systemDefault()).toInstant()),
-                Date.from(endOfYear.atStartOfDay(ZoneId.systemDefault()).toInstant())
-        );
-
-        // Group activities by date and count how many occurred on each day
-        Map<LocalDate, Integer> map = activities.stream()
-                .collect(Collectors.groupingBy(
-                        a -> a.getStartTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDate(),
-                        Collectors.summingInt(a -> 1)
-                ));
-
-        // Convert the map into a list of HeatmapEntry objects
-        return map.entrySet().stream()
-                .map(e -> new HeatmapEntry(e.getKey().toString(), e.getValue()))
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ReportDTO.HeatmapEntry>> getHeatmap(@RequestParam int year, @AuthenticationPrincipal User user) {
+        if (reportSnapshotService.isClosed(year)) {
+            // Closed years are served from a snapshot; Content-Location names its
+            // immutable, versioned URL for clients that want to cache it forever
+            ReportSnapshot snapshot = reportSnapshotService.getHeatmapSnapshot(user.getId(), year);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_LOCATION, "/api/reports/heatmap/" + year + "/v/" + snapshot.getVersion())
+                    .body(snapshot.getHeatmap());
+        }
+        return ResponseEntity.ok(reportService.getHeatmap(user.getId(), year));
+    }
+
+    /**
+    * Versioned heatmap of a closed year. The content behind a version never
+    * changes, so it may be cached forever; a stale version redirects to the
+    * current one.
+    */
+    @GetMapping("/heatmap/{year}/v/{version}")
+    public ResponseEntity<List<ReportDTO.HeatmapEntry>> getHeatmapSnapshot(
+            @PathVariable int year,
+            @PathVariable String version,
+            @AuthenticationPrincipal User user) {
+        if (!reportSnapshotService.isClosed(year)) {
+            return ResponseEntity.notFound().build();
+        }
+        ReportSnapshot snapshot = reportSnapshotService.getHeatmapSnapshot(user.getId(), year);
+        if (!snapshot.getVersion().equals(version)) {
+            return redirect("/api/reports/heatmap/" + year + "/v/" + snapshot.getVersion());
+        }
+        return immutable(snapshot).body(snapshot.getHeatmap());
+    }
+
+    /**
+    * Summary of one calendar month (yyyy-MM). Closed months are served from
+    * a snapshot, with its versioned URL in Content-Location.
+    */
+    @GetMapping("/summary/month/{month}")
+    public ResponseEntity<Map<String, Object>> getMonthSummary(@PathVariable String month, @AuthenticationPrincipal User user) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (reportSnapshotService.isClosed(yearMonth)) {
+            ReportSnapshot snapshot = reportSnapshotService.getMonthSummarySnapshot(user.getId(), yearMonth);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_LOCATION, "/api/reports/summary/month/" + yearMonth + "/v/" + snapshot.getVersion())
+                    .body(reportSnapshotService.getSummary(snapshot));
+        }
+        return ResponseEntity.ok(reportService.getMonthSummary(user.getId(), yearMonth));
+    }
+
+    /**
+    * Versioned summary of a closed month.
+    */
+    @GetMapping("/summary/month/{month}/v/{version}")
+    public ResponseEntity<Map<String, Object>> getMonthSummarySnapshot(
+            @PathVariable String month,
+            @PathVariable String version,
+            @AuthenticationPrincipal User user) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!reportSnapshotService.isClosed(yearMonth)) {
+            return ResponseEntity.notFound().build();
+        }
+        ReportSnapshot snapshot = reportSnapshotService.getMonthSummarySnapshot(user.getId(), yearMonth);
+        if (!snapshot.getVersion().equals(version)) {
+            return redirect("/api/reports/summary/month/" + yearMonth + "/v/" + snapshot.getVersion());
+        }
+        return immutable(snapshot).body(reportSnapshotService.getSummary(snapshot));
+    }
+
+    private static <T> ResponseEntity<T> redirect(String location) {
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(location))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+
+    // Per-user data behind authentication: cacheable by the browser only, never by shared caches
+    private static ResponseEntity.BodyBuilder immutable(ReportSnapshot snapshot) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                .eTag(snapshot.getVersion());
     }
 
 
@@ -156,7 +170,8 @@ public class ReportController {
         // Create a pageable object with descending sort by startTime
         Pageable pageable = PageRequest.of(page, size, Sort.by("startTime").descending());
 
-        // Return a page of activities for the user
-        return activityRepository.findByUserId(user.getId(), pageable);
+        // Return a page of activities for the user, archived months included; these
+        // come after the live ones, which the startTime-descending order relies on
+        return activityService.findActivitiesPage(user.getId(), pageable);
     }
 }
@@ -0,0 +1,8 @@
+package io.devTracker.codeTracker.Dto;
+
+public class ReportDTO {
+    /**
+     * Heatmap data point: a day and the number of activities on that day.
+     */
+    public record HeatmapEntry(String date, int activityLevel) {}
+}
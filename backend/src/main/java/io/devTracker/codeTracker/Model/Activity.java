@@ -1,22 +1,21 @@
 package io.devTracker.codeTracker.Model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.index.CompoundIndex;
-import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import java.util.Date;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Document(collection = "activities")
-@CompoundIndexes({
-    @CompoundIndex(name = "uniq_user_session_file_start", def = "{ 'userId': 1, 'sessionId': 1, 'file': 1, 'startTime': 1 }", unique = true)
-})
+@Document(collection = "#{@activityStorageConfig.collectionName}")
+// Deduplicated on (userId, sessionId, file, startTime): by a unique index on the standard
+// collection (see ActivityStorageConfig), by CustomActivityRepository.withoutDuplicates in
+// time-series mode, where unique indexes are not supported
 public class Activity {
     @Id
     private String id;
@@ -31,6 +30,10 @@ public class Activity {
     private String sessionId; // VS Code session ID
     private String fileExtension; // File extension
 
+    // Time-series metaField (user, project, language); only populated in timeseries storage mode
+    @JsonIgnore
+    private Meta meta;
+
     @CreatedDate
     @Builder.Default
     private Date createdAt = new Date();
@@ -38,4 +41,13 @@ public class Activity {
     @LastModifiedDate
     @Builder.Default
     private Date updatedAt = new Date();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Meta {
+        private String userId;
+        private String projectId;
+        private String language;
+    }
 }
@@ -0,0 +1,42 @@
+package io.devTracker.codeTracker.Model;
+
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Index entry for one compressed cold-archive segment: all raw activities of
+ * one user in one calendar month.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "activity_archive_segments")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_period", def = "{ 'userId': 1, 'periodStart': 1 }")
+})
+public class ActivityArchiveSegment {
+    @Id
+    private String id;           // userId + "-" + yyyy-MM
+    private String userId;
+    private String month;        // yyyy-MM
+    private Date periodStart;    // First instant of the month (inclusive)
+    private Date periodEnd;      // First instant of the next month (exclusive)
+    private long activityCount;
+    private String storage;      // gridfs, file
+    private String location;     // GridFS file id or local file path
+    private long sizeBytes;      // Compressed size
+
+    @CreatedDate
+    private Date createdAt;
+
+    @LastModifiedDate
+    private Date updatedAt;
+}
@@ -0,0 +1,37 @@
+package io.devTracker.codeTracker.Model;
+
+import io.devTracker.codeTracker.Dto.ReportDTO;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Frozen report for a closed period (a past year's heatmap or a past
+ * month's summary). Deleted when a backfill or delete touches the period,
+ * and rebuilt on the next request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "report_snapshots")
+public class ReportSnapshot {
+    @Id
+    private String id;                               // userId:type:period
+    private String userId;
+    private String type;                             // heatmap or summary
+    private String period;                           // yyyy for heatmaps, yyyy-MM for summaries
+    private String version;                          // Content hash, part of the versioned URL
+    private List<ReportDTO.HeatmapEntry> heatmap;
+    // Entries, not a map: keys such as project names may contain dots, which MongoDB field names cannot
+    private List<SummaryEntry> summary;
+    private Date createdAt;
+
+    /**
+     * One entry of a summary map: a number, or a nested map as entries.
+     */
+    public record SummaryEntry(String key, Long value, List<SummaryEntry> entries) {}
+}
@@ -0,0 +1,49 @@
+package io.devTracker.codeTracker.Model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Running per-user counters backing the dashboard overview, so the overview is
+ * a single primary-key read. Kept up to date on ingest and delete, and
+ * repaired by a scheduled reconciliation against the raw collections.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "user_stats")
+public class UserStats {
+    @Id
+    private String id;               // User ID
+    private long totalActivities;    // Hot and archived activities
+    private long totalProjects;
+    private Recent recentProject;
+    private Recent recentActivity;
+    private List<DayBucket> days;    // Ring of daily activity counts, slot = epochDay % size
+    private Date reconciledAt;
+    private Date updatedAt;
+    private long dataVersion;        // Bumped on every change to the user's data; drives ETags
+    private Date dataModifiedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Recent {
+        private String id;
+        private String name;
+        private Date createdAt;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayBucket {
+        private long day;            // Epoch day in the server time zone
+        private long count;
+    }
+}
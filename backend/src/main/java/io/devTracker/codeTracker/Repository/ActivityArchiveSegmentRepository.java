@@ -0,0 +1,15 @@
+package io.devTracker.codeTracker.Repository;
+
+import io.devTracker.codeTracker.Model.ActivityArchiveSegment;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Date;
+import java.util.List;
+
+public interface ActivityArchiveSegmentRepository extends MongoRepository<ActivityArchiveSegment, String> {
+
+    List<ActivityArchiveSegment> findByUserId(String userId);
+
+    // Segments overlapping [from, to)
+    List<ActivityArchiveSegment> findByUserIdAndPeriodStartLessThanAndPeriodEndGreaterThan(String userId, Date to, Date from);
+}
@@ -0,0 +1,28 @@
+package io.devTracker.codeTracker.Repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Blob storage for compressed cold-archive segments.
+ */
+public interface ActivitySegmentStore {
+
+    /**
+     * @return storage type recorded on the segment index entry (gridfs, file)
+     */
+    String type();
+
+    /**
+     * Stores a segment and returns its location.
+     */
+    String write(String segmentId, byte[] data) throws IOException;
+
+    /**
+     * Returns the compressed segment bytes. File-backed stores return a
+     * memory-mapped buffer so segments are inflated without a heap copy.
+     */
+    ByteBuffer read(String location) throws IOException;
+
+    void delete(String location) throws IOException;
+}
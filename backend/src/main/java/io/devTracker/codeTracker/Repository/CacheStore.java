@@ -0,0 +1,61 @@
+package io.devTracker.codeTracker.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cache tier below the local in-process cache, either shared between nodes
+ * (Redis) or local to one node (memory-mapped files). Values are opaque
+ * serialized bytes; keys are scoped by cache name.
+ */
+public interface CacheStore {
+
+    /**
+     * @return tier name used in logs and metrics (e.g. redis)
+     */
+    String type();
+
+    /**
+     * @return whether this tier stores entries of the given cache
+     */
+    default boolean handles(String cacheName) {
+        return true;
+    }
+
+    /**
+     * @return true if the tier is private to this node, so invalidations from
+     * other nodes must be applied to it as well as to L1
+     */
+    default boolean isLocal() {
+        return false;
+    }
+
+    /**
+     * @return the stored bytes, or null on a miss
+     */
+    byte[] get(String cacheName, String key);
+
+    /**
+     * @return the stored bytes for each key, in order, with null for misses
+     */
+    default List<byte[]> getAll(String cacheName, List<String> keys) {
+        List<byte[]> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(get(cacheName, key));
+        }
+        return values;
+    }
+
+    void put(String cacheName, String key, byte[] value, Duration ttl);
+
+    void evict(String cacheName, String key);
+
+    /**
+     * Removes every key of the cache starting with the prefix. May scan the
+     * whole keyspace of the cache, so reserve it for rare, broad invalidations.
+     */
+    void evictByPrefix(String cacheName, String prefix);
+
+    void clear(String cacheName);
+}
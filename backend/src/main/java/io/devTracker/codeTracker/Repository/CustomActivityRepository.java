@@ -1,17 +1,36 @@
 package io.devTracker.codeTracker.Repository;
 
+import io.devTracker.codeTracker.Config.ActivityStorageConfig;
 import io.devTracker.codeTracker.Model.Activity;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.bson.Document;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 public class CustomActivityRepository {
     
     @Autowired
     private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ActivityStorageConfig storageConfig;
     
     public List<Activity> saveAllWithLogging(List<Activity> activities) {
         System.out.println("Attempting to save " + activities.size() + " activities to MongoDB");
@@ -27,4 +46,107 @@ public class CustomActivityRepository {
         System.out.println("Successfully saved " + savedActivities.size() + " activities");
         return savedActivities;
     }
-}
\ No newline at end of file
+
+    /**
+     * Drops activities that are already stored, or repeated within the batch,
+     * by (userId, sessionId, file, startTime).
+     *
+     * The standard collection enforces this key with a unique index, but
+     * time-series collections cannot have unique indexes, so in that mode
+     * the key is checked here before inserting. This catches resent
+     * batches, but two uploads of the same activity running at the same
+     * moment can both pass the check.
+     */
+    public List<Activity> withoutDuplicates(String userId, List<Activity> activities) {
+        if (!storageConfig.isTimeSeries() || activities.isEmpty()) {
+            return activities;
+        }
+
+        Date from = null;
+        Date to = null;
+        Set<String> sessionIds = new HashSet<>();
+        for (Activity activity : activities) {
+            Date start = activity.getStartTime();
+            if (start != null) {
+                from = from == null || start.before(from) ? start : from;
+                to = to == null || start.after(to) ? start : to;
+            }
+            sessionIds.add(activity.getSessionId());
+        }
+
+        Set<List<Object>> seen = new HashSet<>();
+        if (from != null) {
+            Query query = Query.query(Criteria.where(storageConfig.userField()).is(userId)
+                    .and("startTime").gte(from).lte(to)
+                    .and("sessionId").in(sessionIds));
+            query.fields().include("sessionId", "file", "startTime");
+            for (Document doc : mongoTemplate.find(query, Document.class, storageConfig.getCollectionName())) {
+                seen.add(dedupKey(doc.getString("sessionId"), doc.getString("file"), doc.getDate("startTime")));
+            }
+        }
+
+        List<Activity> unique = new ArrayList<>(activities.size());
+        for (Activity activity : activities) {
+            if (seen.add(dedupKey(activity.getSessionId(), activity.getFile(), activity.getStartTime()))) {
+                unique.add(activity);
+            }
+        }
+        return unique;
+    }
+
+    private static List<Object> dedupKey(String sessionId, String file, Date startTime) {
+        // Arrays.asList allows the nulls older clients send for sessionId
+        return Arrays.asList(sessionId, file, startTime == null ? null : startTime.getTime());
+    }
+
+    /**
+     * Range scan used by the report paths. Filters on the storage-mode specific
+     * user field so time-series buckets are pruned by their metaField.
+     *
+     * @param from inclusive lower bound on startTime, or null
+     * @param to   exclusive upper bound on startTime, or null
+     */
+    public List<Activity> findByUserIdAndStartTimeRange(String userId, Date from, Date to) {
+        Criteria criteria = Criteria.where(storageConfig.userField()).is(userId);
+        if (from != null && to != null) {
+            criteria = criteria.and("startTime").gte(from).lt(to);
+        } else if (from != null) {
+            criteria = criteria.and("startTime").gte(from);
+        } else if (to != null) {
+            criteria = criteria.and("startTime").lt(to);
+        }
+        return mongoTemplate.find(Query.query(criteria), Activity.class);
+    }
+
+    public long countByUserId(String userId) {
+        return mongoTemplate.count(Query.query(Criteria.where(storageConfig.userField()).is(userId)), Activity.class);
+    }
+
+    public Activity findMostRecentByUserId(String userId) {
+        Query query = Query.query(Criteria.where(storageConfig.userField()).is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(1);
+        return mongoTemplate.findOne(query, Activity.class);
+    }
+
+    /**
+     * Number of activities per local day (server time zone) with startTime >= from.
+     */
+    public Map<LocalDate, Long> countByUserIdPerDay(String userId, Date from) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(storageConfig.userField()).is(userId).and("startTime").gte(from)),
+                Aggregation.project()
+                        .and(DateOperators.DateToString.dateOf("startTime")
+                                .toString("%Y-%m-%d")
+                                .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId())))
+                        .as("day"),
+                Aggregation.group("day").count().as("count")
+        );
+
+        Map<LocalDate, Long> counts = new HashMap<>();
+        for (Document doc : mongoTemplate.aggregate(aggregation, Activity.class, Document.class).getMappedResults()) {
+            counts.put(LocalDate.parse(doc.getString("_id")), ((Number) doc.get("count")).longValue());
+        }
+        return counts;
+    }
+}
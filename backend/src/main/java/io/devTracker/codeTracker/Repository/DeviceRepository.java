@@ -26,6 +26,9 @@ public interface DeviceRepository extends MongoRepository<Device, String> {
     // Find pending devices
     List<Device> findByStatusAndExpiresAtAfter(String status, Date date);
     
-    // Delete expired devices
-    void deleteByExpiresAtBefore(Date date);
+    // Delete devices in a status whose code expired before the given date
+    long deleteByStatusAndExpiresAtBefore(String status, Date date);
+
+    // Delete devices in a status, e.g. legacy "expired" records
+    long deleteByStatus(String status);
 }
@@ -0,0 +1,54 @@
+package io.devTracker.codeTracker.Repository;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Stores archive segments in MongoDB GridFS, so every replica can read them.
+ */
+@Component
+@ConditionalOnProperty(name = "activity.retention.store", havingValue = "gridfs", matchIfMissing = true)
+public class GridFsActivitySegmentStore implements ActivitySegmentStore {
+
+    @Autowired
+    private GridFsTemplate gridFsTemplate;
+
+    @Override
+    public String type() {
+        return "gridfs";
+    }
+
+    @Override
+    public String write(String segmentId, byte[] data) {
+        ObjectId id = gridFsTemplate.store(new ByteArrayInputStream(data), segmentId + ".seg", "application/octet-stream");
+        return id.toHexString();
+    }
+
+    @Override
+    public ByteBuffer read(String location) throws IOException {
+        GridFSFile file = gridFsTemplate.findOne(Query.query(Criteria.where("_id").is(new ObjectId(location))));
+        if (file == null) {
+            throw new FileNotFoundException("Archive segment not found in GridFS: " + location);
+        }
+        try (InputStream in = gridFsTemplate.getResource(file).getInputStream()) {
+            return ByteBuffer.wrap(in.readAllBytes());
+        }
+    }
+
+    @Override
+    public void delete(String location) {
+        gridFsTemplate.delete(Query.query(Criteria.where("_id").is(new ObjectId(location))));
+    }
+}
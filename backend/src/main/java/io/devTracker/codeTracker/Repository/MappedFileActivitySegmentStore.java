@@ -0,0 +1,57 @@
+package io.devTracker.codeTracker.Repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stores archive segments as local files and reads them back through
+ * memory-mapped I/O. Only suitable when every replica shares the directory.
+ */
+@Component
+@ConditionalOnProperty(name = "activity.retention.store", havingValue = "file")
+public class MappedFileActivitySegmentStore implements ActivitySegmentStore {
+
+    @Value("${activity.retention.directory:./data/archive}")
+    private String directory;
+
+    @Override
+    public String type() {
+        return "file";
+    }
+
+    @Override
+    public String write(String segmentId, byte[] data) throws IOException {
+        Path root = Paths.get(directory);
+        Files.createDirectories(root);
+
+        // Write under a unique name and move into place so readers never see a partial file
+        Path target = root.resolve(segmentId + "-" + System.currentTimeMillis() + ".seg");
+        Path tmp = root.resolve(target.getFileName() + ".tmp");
+        Files.write(tmp, data);
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        return target.toString();
+    }
+
+    @Override
+    public ByteBuffer read(String location) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(location), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public void delete(String location) throws IOException {
+        Files.deleteIfExists(Paths.get(location));
+    }
+}
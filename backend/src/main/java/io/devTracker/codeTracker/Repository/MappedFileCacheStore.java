@@ -0,0 +1,226 @@
+package io.devTracker.codeTracker.Repository;
+
+import io.devTracker.codeTracker.Config.CacheInvalidationBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-local cache tier in memory-mapped files, one {@link MappedHashFile}
+ * per cache under cache.mmap.directory. Entries live off-heap and keep their
+ * TTL across restarts.
+ *
+ * On a single node every invalidation passes through this store, so the
+ * files are reopened as they are and a restarted node serves warm heatmaps
+ * and overviews straight away. With cache.redis.enabled other nodes keep
+ * writing while this one is down, so each file is stamped with the
+ * invalidation log id up to which it is current; at startup the entries
+ * invalidated since then are dropped, and a file is cleared only when the
+ * log no longer reaches back to its stamp.
+ *
+ * Ordered before shared tiers so local hits never touch the network.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "cache.mmap.enabled", havingValue = "true")
+public class MappedFileCacheStore implements CacheStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedFileCacheStore.class);
+
+    @Value("${cache.mmap.directory:./data/cache}")
+    private String directory;
+
+    @Value("${cache.mmap.caches:heatmap,overview}")
+    private List<String> cacheNames;
+
+    @Value("${cache.mmap.size-mb:64}")
+    private int sizeMb;
+
+    @Value("${cache.mmap.buckets:65536}")
+    private int buckets;
+
+    // Present with cache.redis.enabled; other nodes log invalidations this node misses while down
+    @Autowired
+    private ObjectProvider<CacheInvalidationBus> invalidationBus;
+
+    private final Map<String, MappedHashFile> files = new ConcurrentHashMap<>();
+
+    // Log id read at the last flush, and whether invalidations may have been missed since
+    private volatile String previousTail;
+    private volatile boolean missedInvalidations;
+
+    @PostConstruct
+    public void open() throws IOException {
+        long sizeBytes = sizeMb * 1024L * 1024;
+        if (sizeBytes <= 0 || sizeBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("cache.mmap.size-mb must be between 1 and 2047, was " + sizeMb);
+        }
+        Path root = Paths.get(directory);
+        for (String cacheName : cacheNames) {
+            MappedHashFile file = MappedHashFile.open(root.resolve(cacheName + ".cache"), (int) sizeBytes, buckets);
+            files.put(cacheName, file);
+        }
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus != null) {
+            catchUp(bus);
+        }
+        files.forEach((cacheName, file) -> logger.info("Opened mmap cache file for {} with {} live entries",
+                cacheName, file.size(System.currentTimeMillis())));
+    }
+
+    /**
+     * Applies the invalidations logged since each file's epoch, then stamps
+     * the files with the newest log id if the bus is listening, so that
+     * nothing after it can be missed. Files are already registered, so
+     * invalidations received meanwhile are applied too.
+     */
+    private void catchUp(CacheInvalidationBus bus) {
+        String tail = bus.lastLogId();
+        files.forEach((cacheName, file) -> {
+            List<CacheInvalidationBus.Invalidation> invalidations = tail != null ? bus.logSince(file.epoch()) : null;
+            if (invalidations == null) {
+                file.clear();
+                logger.info("Cleared mmap cache file for {}: invalidations since {} are not in the log",
+                        cacheName, file.epoch());
+                return;
+            }
+            long now = System.currentTimeMillis();
+            for (CacheInvalidationBus.Invalidation invalidation : invalidations) {
+                if (!invalidation.cacheName().equals(cacheName)) {
+                    continue;
+                }
+                switch (invalidation.type()) {
+                    case "C" -> file.clear();
+                    case "E" -> file.remove(invalidation.key(), now);
+                    case "P" -> file.removeByPrefix(invalidation.key(), now);
+                    default -> { }
+                }
+            }
+        });
+        if (tail != null && bus.isListening()) {
+            stamp(tail);
+            previousTail = tail;
+            missedInvalidations = false;
+        } else {
+            missedInvalidations = true;
+        }
+    }
+
+    private void stamp(String epoch) {
+        files.values().forEach(file -> file.setEpoch(epoch));
+    }
+
+    @PreDestroy
+    public void close() {
+        files.forEach((cacheName, file) -> {
+            try {
+                file.close();
+            } catch (IOException e) {
+                logger.warn("Could not close mmap cache file for {}: {}", cacheName, e.getMessage());
+            }
+        });
+        files.clear();
+    }
+
+    /**
+     * Writes dirty pages to disk periodically so a crash loses little more
+     * than the last interval; the OS flushes them on a clean exit anyway.
+     *
+     * When clustered, the files are first stamped with the log id read at
+     * the previous flush: the invalidations up to it were published an
+     * interval ago and have been applied since. While the bus is not
+     * listening the stamp stays put, and once it is back the files catch up
+     * from the log.
+     */
+    @Scheduled(fixedDelayString = "${cache.mmap.flush-interval:60000}")
+    public void flush() {
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus != null) {
+            if (!bus.isListening()) {
+                missedInvalidations = true;
+            } else if (missedInvalidations) {
+                catchUp(bus);
+            } else {
+                String tail = bus.lastLogId();
+                if (tail != null) {
+                    stamp(previousTail);
+                    previousTail = tail;
+                }
+            }
+        }
+        files.values().forEach(MappedHashFile::flush);
+    }
+
+    @Override
+    public String type() {
+        return "mmap";
+    }
+
+    @Override
+    public boolean handles(String cacheName) {
+        return cacheNames.contains(cacheName);
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    @Override
+    public byte[] get(String cacheName, String key) {
+        MappedHashFile file = files.get(cacheName);
+        return file != null ? file.get(key, System.currentTimeMillis()) : null;
+    }
+
+    @Override
+    public void put(String cacheName, String key, byte[] value, Duration ttl) {
+        MappedHashFile file = files.get(cacheName);
+        if (file == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!file.put(key, value, now + ttl.toMillis(), now)) {
+            logger.debug("Entry {} of {} does not fit in the mmap cache file", key, cacheName);
+        }
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        MappedHashFile file = files.get(cacheName);
+        if (file != null) {
+            file.remove(key, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public void evictByPrefix(String cacheName, String prefix) {
+        MappedHashFile file = files.get(cacheName);
+        if (file != null) {
+            file.removeByPrefix(prefix, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        MappedHashFile file = files.get(cacheName);
+        if (file != null) {
+            file.clear();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package io.devTracker.codeTracker.Repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent hash table in a single memory-mapped file.
+ *
+ * Layout: a header (magic, version, bucket count, end of data, epoch), a
+ * table of bucket heads, then an append-only data region. Each record holds the
+ * offset of the next record in its bucket, an expiry time, key and value
+ * lengths, a CRC32 and the key and value bytes. A put or remove appends a
+ * record and makes it the bucket head, so the first record found for a key
+ * is the current one; a value length of -1 marks a removal. When the data
+ * region is full, live entries are compacted back to the start of the file.
+ *
+ * Values live outside the Java heap and survive a restart of the process.
+ * The epoch is an invalidation log id ("millis-sequence") recorded by the
+ * owner: every invalidation up to it has been applied to the file. It is
+ * kept across clear and compaction and starts at "0-0".
+ */
+final class MappedHashFile implements Closeable {
+
+    private static final int MAGIC = 0x44544346; // "DTCF"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+    private static final int DATA_END_OFFSET = 16;
+    private static final int EPOCH_OFFSET = 24;
+    private static final int RECORD_HEADER_SIZE = 28;
+    private static final int REMOVED = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int bucketCount;
+    private final int dataStart;
+    private final int capacity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private MappedHashFile(FileChannel channel, MappedByteBuffer buffer, int bucketCount, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.bucketCount = bucketCount;
+        this.dataStart = HEADER_SIZE + bucketCount * 8;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Opens the file, or creates it if it is missing or was written with a
+     * different size or layout.
+     */
+    static MappedHashFile open(Path path, int sizeBytes, int bucketCount) throws IOException {
+        if (HEADER_SIZE + (long) bucketCount * 8 >= sizeBytes) {
+            throw new IllegalArgumentException("Cache file too small for " + bucketCount + " buckets");
+        }
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            boolean sameSize = channel.size() == sizeBytes;
+            if (!sameSize) {
+                channel.truncate(0);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes);
+            MappedHashFile file = new MappedHashFile(channel, buffer, bucketCount, sizeBytes);
+            if (!sameSize || !file.hasValidHeader()) {
+                file.reset();
+                file.setEpoch("0-0");
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the value, or null if absent, removed, expired or corrupt
+     */
+    byte[] get(String key, long now) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int pos = find(keyBytes);
+            if (pos < 0) {
+                return null;
+            }
+            int valueLength = buffer.getInt(pos + 20);
+            if (valueLength == REMOVED || buffer.getLong(pos + 8) <= now) {
+                return null;
+            }
+            byte[] value = new byte[valueLength];
+            buffer.get(pos + RECORD_HEADER_SIZE + keyBytes.length, value);
+            return checksum(keyBytes, value) == buffer.getInt(pos + 24) ? value : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return false if the entry does not fit even after compaction
+     */
+    boolean put(String key, byte[] value, long expiresAt, long now) {
+        return append(key.getBytes(StandardCharsets.UTF_8), value, expiresAt, now);
+    }
+
+    void remove(String key, long now) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            if (find(keyBytes) >= 0) {
+                append(keyBytes, null, 0, now);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeByPrefix(String prefix, long now) {
+        lock.writeLock().lock();
+        try {
+            for (String key : liveEntries(now).keySet()) {
+                if (key.startsWith(prefix)) {
+                    append(key.getBytes(StandardCharsets.UTF_8), null, 0, now);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    String epoch() {
+        lock.readLock().lock();
+        try {
+            return buffer.getLong(EPOCH_OFFSET) + "-" + buffer.getLong(EPOCH_OFFSET + 8);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void setEpoch(String epoch) {
+        String[] parts = epoch.split("-", 2);
+        lock.writeLock().lock();
+        try {
+            buffer.putLong(EPOCH_OFFSET, Long.parseLong(parts[0]));
+            buffer.putLong(EPOCH_OFFSET + 8, Long.parseLong(parts[1]));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size(long now) {
+        lock.readLock().lock();
+        try {
+            return liveEntries(now).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void flush() {
+        lock.readLock().lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean append(byte[] keyBytes, byte[] value, long expiresAt, long now) {
+        lock.writeLock().lock();
+        try {
+            int length = RECORD_HEADER_SIZE + keyBytes.length + (value != null ? value.length : 0);
+            if (length > capacity - dataStart) {
+                return false;
+            }
+            if (dataEnd() + length > capacity) {
+                compact(now);
+                if (dataEnd() + length > capacity) {
+                    return false;
+                }
+            }
+            writeRecord(keyBytes, value, expiresAt);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void writeRecord(byte[] keyBytes, byte[] value, long expiresAt) {
+        int pos = dataEnd();
+        int bucket = bucketOffset(keyBytes);
+        buffer.putLong(pos, buffer.getLong(bucket));
+        buffer.putLong(pos + 8, expiresAt);
+        buffer.putInt(pos + 16, keyBytes.length);
+        buffer.putInt(pos + 20, value != null ? value.length : REMOVED);
+        buffer.putInt(pos + 24, value != null ? checksum(keyBytes, value) : 0);
+        buffer.put(pos + RECORD_HEADER_SIZE, keyBytes);
+        if (value != null) {
+            buffer.put(pos + RECORD_HEADER_SIZE + keyBytes.length, value);
+        }
+        // Publish the record only after it is complete
+        setDataEnd(pos + RECORD_HEADER_SIZE + keyBytes.length + (value != null ? value.length : 0));
+        buffer.putLong(bucket, pos);
+    }
+
+    /**
+     * Rewrites the live entries to the start of the data region.
+     */
+    private void compact(long now) {
+        Map<String, Object[]> live = new LinkedHashMap<>();
+        liveEntries(now).forEach((key, pos) -> {
+            int keyLength = buffer.getInt(pos + 16);
+            byte[] value = new byte[buffer.getInt(pos + 20)];
+            buffer.get(pos + RECORD_HEADER_SIZE + keyLength, value);
+            live.put(key, new Object[] {value, buffer.getLong(pos + 8)});
+        });
+        reset();
+        live.forEach((key, entry) -> {
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            byte[] value = (byte[]) entry[0];
+            if (dataEnd() + RECORD_HEADER_SIZE + keyBytes.length + value.length <= capacity) {
+                writeRecord(keyBytes, value, (long) entry[1]);
+            }
+        });
+    }
+
+    /**
+     * Current record position of every live key.
+     */
+    private Map<String, Integer> liveEntries(long now) {
+        Map<String, Integer> live = new LinkedHashMap<>();
+        int end = dataEnd();
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            Set<String> seen = new HashSet<>();
+            long offset = buffer.getLong(HEADER_SIZE + bucket * 8);
+            while (isRecord(offset, end)) {
+                int pos = (int) offset;
+                int keyLength = buffer.getInt(pos + 16);
+                byte[] keyBytes = new byte[keyLength];
+                buffer.get(pos + RECORD_HEADER_SIZE, keyBytes);
+                String key = new String(keyBytes, StandardCharsets.UTF_8);
+                if (seen.add(key) && buffer.getInt(pos + 20) != REMOVED && buffer.getLong(pos + 8) > now) {
+                    live.put(key, pos);
+                }
+                offset = buffer.getLong(pos);
+            }
+        }
+        return live;
+    }
+
+    private int find(byte[] keyBytes) {
+        int end = dataEnd();
+        long offset = buffer.getLong(bucketOffset(keyBytes));
+        while (isRecord(offset, end)) {
+            int pos = (int) offset;
+            if (buffer.getInt(pos + 16) == keyBytes.length && keyEquals(pos + RECORD_HEADER_SIZE, keyBytes)) {
+                return pos;
+            }
+            offset = buffer.getLong(pos);
+        }
+        return -1;
+    }
+
+    // Bounds check so a damaged file degrades to misses instead of exceptions
+    private boolean isRecord(long offset, int end) {
+        if (offset < dataStart || offset + RECORD_HEADER_SIZE > end) {
+            return false;
+        }
+        int pos = (int) offset;
+        int keyLength = buffer.getInt(pos + 16);
+        int valueLength = buffer.getInt(pos + 20);
+        return keyLength >= 0 && valueLength >= REMOVED
+                && pos + RECORD_HEADER_SIZE + (long) keyLength + Math.max(valueLength, 0) <= end;
+    }
+
+    private boolean keyEquals(int pos, byte[] keyBytes) {
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (buffer.get(pos + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int bucketOffset(byte[] keyBytes) {
+        int hash = Arrays.hashCode(keyBytes);
+        hash ^= hash >>> 16;
+        return HEADER_SIZE + Math.floorMod(hash, bucketCount) * 8;
+    }
+
+    private boolean hasValidHeader() {
+        int end = dataEnd();
+        return buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && buffer.getInt(8) == bucketCount
+                && end >= dataStart && end <= capacity;
+    }
+
+    // Leaves the epoch alone: clearing entries does not undo applied invalidations
+    private void reset() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, bucketCount);
+        buffer.putInt(12, 0);
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            buffer.putLong(HEADER_SIZE + bucket * 8, 0L);
+        }
+        setDataEnd(dataStart);
+    }
+
+    private int dataEnd() {
+        return (int) buffer.getLong(DATA_END_OFFSET);
+    }
+
+    private void setDataEnd(int end) {
+        buffer.putLong(DATA_END_OFFSET, end);
+    }
+
+    private static int checksum(byte[] keyBytes, byte[] value) {
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        crc.update(value);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,111 @@
+package io.devTracker.codeTracker.Repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared cache tier in Redis, keyed as cache:&lt;cacheName&gt;:&lt;key&gt;.
+ * Connects through the standard spring.data.redis.* settings, so a local
+ * Redis (or any protocol-compatible stand-in) works for development and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.redis.enabled", havingValue = "true")
+public class RedisCacheStore implements CacheStore {
+
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+
+    public RedisCacheStore(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        this.redisTemplate = template;
+    }
+
+    @Override
+    public String type() {
+        return "redis";
+    }
+
+    @Override
+    public byte[] get(String cacheName, String key) {
+        return redisTemplate.opsForValue().get(redisKey(cacheName, key));
+    }
+
+    @Override
+    public List<byte[]> getAll(String cacheName, List<String> keys) {
+        // One MGET instead of a round trip per key
+        List<byte[]> values = redisTemplate.opsForValue().multiGet(
+                keys.stream().map(key -> redisKey(cacheName, key)).toList());
+        return values != null ? values : CacheStore.super.getAll(cacheName, keys);
+    }
+
+    @Override
+    public void put(String cacheName, String key, byte[] value, Duration ttl) {
+        redisTemplate.opsForValue().set(redisKey(cacheName, key), value, ttl);
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        redisTemplate.unlink(redisKey(cacheName, key));
+    }
+
+    @Override
+    public void evictByPrefix(String cacheName, String prefix) {
+        deleteMatching(redisKey(cacheName, escapeGlob(prefix) + "*"));
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        deleteMatching(redisKey(cacheName, "*"));
+    }
+
+    /**
+     * Deletes every key matching a glob pattern, using SCAN rather than KEYS
+     * so Redis is not blocked on large keyspaces.
+     */
+    public long deleteMatching(String pattern) {
+        long deleted = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(DELETE_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == DELETE_BATCH_SIZE) {
+                    deleted += unlink(batch);
+                }
+            }
+            deleted += unlink(batch);
+        }
+        return deleted;
+    }
+
+    private long unlink(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long count = redisTemplate.unlink(keys);
+        keys.clear();
+        return count != null ? count : 0;
+    }
+
+    private static String escapeGlob(String value) {
+        return value.replaceAll("([*?\\[\\]\\\\])", "\\\\$1");
+    }
+
+    static String redisKey(String cacheName, String key) {
+        return "cache:" + cacheName + ":" + key;
+    }
+}
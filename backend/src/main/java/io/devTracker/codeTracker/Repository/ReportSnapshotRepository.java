@@ -0,0 +1,7 @@
+package io.devTracker.codeTracker.Repository;
+
+import io.devTracker.codeTracker.Model.ReportSnapshot;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ReportSnapshotRepository extends MongoRepository<ReportSnapshot, String> {
+}
@@ -0,0 +1,7 @@
+package io.devTracker.codeTracker.Repository;
+
+import io.devTracker.codeTracker.Model.UserStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface UserStatsRepository extends MongoRepository<UserStats, String> {
+}
@@ -0,0 +1,162 @@
+package io.devTracker.codeTracker.Security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Verifies Google ID tokens locally against Google's published RS256 keys
+ * instead of calling the tokeninfo endpoint for every token.
+ *
+ * The key set is fetched lazily from google.jwks-url, cached by kid and kept
+ * for the max-age of the response's Cache-Control header. A token signed
+ * with an unknown kid triggers an early refetch, at most once per
+ * google.jwks-min-refresh-interval, to pick up rotated keys.
+ */
+@Component
+public class GoogleIdTokenVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(GoogleIdTokenVerifier.class);
+
+    private static final Set<String> ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofHours(1);
+
+    private record KeySet(Map<String, PublicKey> keys, long expiresAt, long fetchedAt) {}
+
+    private final URI jwksUri;
+    private final String clientId;
+    private final Duration minRefreshInterval;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JwtParser parser;
+
+    private volatile KeySet keySet = new KeySet(Map.of(), 0, Long.MIN_VALUE / 2);
+
+    public GoogleIdTokenVerifier(@Qualifier("googleApiRestTemplate") RestTemplate restTemplate,
+                                 @Value("${google.jwks-url:https://www.googleapis.com/oauth2/v3/certs}") String jwksUrl,
+                                 @Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId,
+                                 @Value("${google.jwks-min-refresh-interval:60s}") Duration minRefreshInterval) {
+        this.jwksUri = URI.create(jwksUrl);
+        this.clientId = clientId;
+        this.minRefreshInterval = minRefreshInterval;
+        this.restTemplate = restTemplate;
+        this.parser = Jwts.parserBuilder()
+                .requireAudience(clientId)
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // Only accept RS256, so a token cannot pick a weaker algorithm
+                        if (!SignatureAlgorithm.RS256.getValue().equals(header.getAlgorithm())) {
+                            throw new JwtException("Unexpected ID token algorithm: " + header.getAlgorithm());
+                        }
+                        return findKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @return the verified claims, or null if the token is invalid, expired,
+     * issued for another client or signed with an unknown key
+     */
+    public Claims verify(String idToken) {
+        try {
+            Claims claims = parser.parseClaimsJws(idToken).getBody();
+            if (!ISSUERS.contains(claims.getIssuer())) {
+                logger.debug("Rejected ID token from issuer {}", claims.getIssuer());
+                return null;
+            }
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected ID token for client {}: {}", clientId, e.getMessage());
+            return null;
+        }
+    }
+
+    private PublicKey findKey(String kid) {
+        if (kid == null) {
+            throw new JwtException("ID token has no kid");
+        }
+        KeySet current = keySet;
+        PublicKey key = current.keys().get(kid);
+        long now = System.currentTimeMillis();
+        if (key == null || now >= current.expiresAt()) {
+            key = refresh(current, now).keys().get(kid);
+        }
+        if (key == null) {
+            throw new JwtException("Unknown ID token signing key " + kid);
+        }
+        return key;
+    }
+
+    private synchronized KeySet refresh(KeySet seen, long now) {
+        KeySet current = keySet;
+        // Another thread refreshed while we waited, or an unknown kid was just looked up
+        if (current != seen || (now < current.expiresAt() && now - current.fetchedAt() < minRefreshInterval.toMillis())) {
+            return current;
+        }
+        try {
+            keySet = fetch(now);
+        } catch (JsonProcessingException | GeneralSecurityException | RuntimeException e) {
+            logger.warn("Could not fetch Google signing keys from {}: {}", jwksUri, e.getMessage());
+            // Keep the old keys and back off until the next allowed refresh
+            keySet = new KeySet(current.keys(), now + minRefreshInterval.toMillis(), now);
+        }
+        return keySet;
+    }
+
+    private KeySet fetch(long now) throws JsonProcessingException, GeneralSecurityException {
+        // Non-2xx responses throw from the RestTemplate
+        ResponseEntity<String> response = restTemplate.getForEntity(jwksUri, String.class);
+
+        Map<String, PublicKey> keys = new HashMap<>();
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        for (JsonNode jwk : objectMapper.readTree(response.getBody()).path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asText()) || !jwk.hasNonNull("kid")) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+            keys.put(jwk.get("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+
+        Duration maxAge = Optional.ofNullable(response.getHeaders().getCacheControl())
+                .map(MAX_AGE::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Duration.ofSeconds(Long.parseLong(matcher.group(1))))
+                .orElse(DEFAULT_MAX_AGE);
+        logger.info("Fetched {} Google signing keys, cached for {}", keys.size(), maxAge);
+        return new KeySet(Map.copyOf(keys), now + maxAge.toMillis(), now);
+    }
+}
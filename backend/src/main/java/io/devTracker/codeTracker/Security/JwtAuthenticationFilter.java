@@ -1,5 +1,6 @@
 package io.devTracker.codeTracker.Security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,27 +18,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Collections;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 public class JwtAuthenticationFilter extends OncePerRequestFilter implements Ordered {
+
+    // Request attribute holding the device document id of device-flow tokens
+    public static final String DEVICE_ID_ATTRIBUTE = "deviceId";
     
     private int order = Ordered.HIGHEST_PRECEDENCE + 1;
 
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
     private final String googleClientId;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserRepository userRepository,
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserRepository userRepository, PrincipalCache principalCache,
+                                 GoogleIdTokenVerifier googleIdTokenVerifier,
                                  @Value("${spring.security.oauth2.client.registration.google.client-id}") String googleClientId) {
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.googleIdTokenVerifier = googleIdTokenVerifier;
         this.googleClientId = googleClientId;
     }
 
@@ -66,35 +69,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter implements Ord
 
         if (idToken != null) {
             try {
-                // Build HTTP request to Google to validate the ID token
-                HttpClient client = HttpClient.newHttpClient();
-                HttpRequest request2 = HttpRequest.newBuilder()
-                        .uri(URI.create("https://oauth2.googleapis.com/tokeninfo?id_token=" + idToken))
-                        .build();
-
-                // Send request and get the response
-                HttpResponse<String> response2 = client.send(request2, HttpResponse.BodyHandlers.ofString());
-                String responseBody = response2.body();
-
-                // Parse JSON response to extract user info
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode root = mapper.readTree(responseBody);
-
-                String email = root.get("email").asText(); // Extract email from token
-                // Extract Google user ID (sub) and use it
-                String userIdFromGoogle = root.get("sub").asText();
-                logger.debug("Processing Google user with ID: {}", userIdFromGoogle);
-
-                // Check if user exists in DB
-                User user = userRepository.findByEmail(email).orElse(null);
-                if (user != null) {
-                    // Create authentication object and set it in security context
-                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                            user, null, Collections.emptyList());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                // Verify the ID token locally against Google's cached signing keys
+                Claims idClaims = googleIdTokenVerifier.verify(idToken);
+                if (idClaims == null) {
+                    logger.warn("Rejected invalid Google ID token");
                 } else {
-                    logger.warn("User not found for email: {}", email); // Log if user not found
+                    String email = idClaims.get("email", String.class); // Extract email from token
+                    // Extract Google user ID (sub) and use it
+                    String userIdFromGoogle = idClaims.getSubject();
+                    logger.debug("Processing Google user with ID: {}", userIdFromGoogle);
+
+                    // Check if user exists in DB
+                    User user = userRepository.findByEmail(email).orElse(null);
+                    if (user != null) {
+                        // Create authentication object and set it in security context
+                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                                user, null, Collections.emptyList());
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    } else {
+                        logger.warn("User not found for email: {}", email); // Log if user not found
+                    }
                 }
             } catch (Exception e) {
                 logger.error("Error validating ID token for client ID: {}", googleClientId, e); // Log errors during token validation
@@ -103,16 +98,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter implements Ord
             token = header.substring(7); // Extract JWT token from Authorization header
         }
 
-        if (token != null && jwtUtil.validateJwtToken(token)) {
+        Claims claims = token != null ? jwtUtil.verifyJwtToken(token) : null;
+        if (claims != null) {
             // If token is valid, extract user ID from JWT
-            String userId = jwtUtil.getUserIdFromJwtToken(token);
-            User user = userRepository.findById(userId).orElse(null); // Fetch user from DB
+            String userId = claims.getSubject();
+            User user = principalCache.get(userId); // Fetch user from the principal cache or DB
             if (user != null) {
                 // Authenticate user and set security context
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         user, null, Collections.emptyList());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                // Lets controllers attribute the request to the extension's device
+                String deviceId = claims.get(JwtUtil.DEVICE_ID_CLAIM, String.class);
+                if (deviceId != null) {
+                    request.setAttribute(DEVICE_ID_ATTRIBUTE, deviceId);
+                }
             }
         }
 
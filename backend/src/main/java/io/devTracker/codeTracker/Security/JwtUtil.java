@@ -1,33 +1,85 @@
 package io.devTracker.codeTracker.Security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component // Marks this class as a Spring component for dependency injection
 public class JwtUtil {
 
+    public static final String DEVICE_ID_CLAIM = "deviceId"; // Set on tokens issued through the device flow
+
     @Value("${jwt.secret}")
     private String jwtSecretString; // Secret key from application properties
 
     @Value("${jwt.expiration}")
     private long jwtExpirationMs; // Token expiration time in milliseconds
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize; // Verified tokens kept in memory
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private SecretKey jwtSecret; // SecretKey object used for signing JWTs
 
+    private JwtParser jwtParser; // Immutable and thread-safe, built once
+
+    // Claims of already verified tokens, keyed by token hash and expiring at the token's exp
+    private Cache<String, Claims> verifiedClaims;
+
     @PostConstruct
     public void init() {
         // Convert the secret string into a SecretKey after dependency injection
         this.jwtSecret = Keys.hmacShaKeyFor(jwtSecretString.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(jwtSecret)
+                .build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        long remainingMs = expiration != null
+                                ? expiration.getTime() - System.currentTimeMillis()
+                                : jwtExpirationMs;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedClaims, "jwtClaims");
     }
 
     public String generateToken(String userId, String email) {
@@ -44,27 +96,59 @@ public class JwtUtil {
                 .compact(); // Finalize the token creation
     }
 
-    public boolean validateJwtToken(String token) {
+    /**
+     * Token for a device-flow client; the deviceId claim (the device document
+     * id) lets requests made with it be attributed to the device.
+     */
+    public String generateDeviceToken(String userId, String email, String deviceId) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+
+        return Jwts.builder()
+                .setSubject(userId)
+                .claim("email", email)
+                .claim(DEVICE_ID_CLAIM, deviceId)
+                .setIssuedAt(now)
+                .setExpiration(expiryDate)
+                .signWith(jwtSecret)
+                .compact();
+    }
+
+    /**
+     * Verifies a token once and returns its claims; repeat calls for the same
+     * token are served from the cache without decoding or HMAC.
+     *
+     * @return the claims, or null if the token is invalid or expired
+     */
+    public Claims verifyJwtToken(String token) {
         try {
-            // Parse and validate the token's signature and structure
-            Jwts.parserBuilder()
-            .setSigningKey(jwtSecret)
-            .build()
-            .parseClaimsJws(token);
-            return true; // Token is valid
+            return getClaims(token);
         } catch (JwtException | IllegalArgumentException e) {
             // Invalid token: signature, format, or expiration issue
-            return false;
+            return null;
         }
     }
 
+    public boolean validateJwtToken(String token) {
+        return verifyJwtToken(token) != null;
+    }
+
     private Claims getClaims(String token) {
-        // Extract and return the claims (payload) from the JWT
-        return Jwts.parserBuilder()
-                .setSigningKey(jwtSecret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+        // Failures are not cached, so only correctly signed tokens take up entries
+        return verifiedClaims.get(tokenHash(token), key -> jwtParser.parseClaimsJws(token).getBody());
+    }
+
+    // Hash rather than the raw token, so bearer credentials are not kept on the heap
+    private static String tokenHash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     public String getUserIdFromJwtToken(String token) {
@@ -0,0 +1,69 @@
+package io.devTracker.codeTracker.Security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.devTracker.codeTracker.Model.User;
+import io.devTracker.codeTracker.Repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of authenticated users, so a request with a valid JWT
+ * does not need a user lookup in Mongo.
+ *
+ * Entries are dropped when this node updates a user and otherwise expire
+ * after security.principal-cache.ttl, which bounds how long another node's
+ * update can go unnoticed. Hit ratio is exposed as the cache.gets metrics of
+ * the "principals" cache; security.principal_cache.age records how old each
+ * served entry was.
+ */
+@Component
+public class PrincipalCache {
+
+    private record Entry(User user, long loadedAt) {}
+
+    private final UserRepository userRepository;
+    private final Cache<String, Entry> cache;
+    private final Timer age;
+
+    public PrincipalCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                          @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.principal-cache.ttl:30s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.age = Timer.builder("security.principal_cache.age")
+                .description("Age of cached users served to authenticated requests")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    /**
+     * @return the user, or null if no user has this ID
+     */
+    public User get(String userId) {
+        Entry entry = cache.get(userId, id -> userRepository.findById(id)
+                .map(user -> new Entry(user, System.nanoTime()))
+                .orElse(null));
+        if (entry == null) {
+            return null;
+        }
+        age.record(System.nanoTime() - entry.loadedAt(), TimeUnit.NANOSECONDS);
+        return entry.user();
+    }
+
+    public void invalidate(String userId) {
+        if (userId != null) {
+            cache.invalidate(userId);
+        }
+    }
+}
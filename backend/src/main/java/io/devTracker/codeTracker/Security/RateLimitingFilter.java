@@ -2,7 +2,6 @@ package io.devTracker.codeTracker.Security;
 
 import io.devTracker.codeTracker.Model.User;
 import io.devTracker.codeTracker.Service.RateLimitService;
-import io.github.bucket4j.Bucket;
 import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,6 +16,12 @@ import java.io.IOException;
 import org.springframework.core.Ordered;
 public class RateLimitingFilter extends OncePerRequestFilter implements Ordered {
 
+    // Set by ingestion endpoints on "items" policies: items received, and items stored
+    public static final String ITEMS_ATTRIBUTE = "rateLimit.items";
+    public static final String ACCEPTED_ITEMS_ATTRIBUTE = "rateLimit.acceptedItems";
+    // The policy the request was charged under
+    public static final String POLICY_ATTRIBUTE = "rateLimit.policy";
+
     private final RateLimitService rateLimitService;
 
     public RateLimitingFilter(RateLimitService rateLimitService) {
@@ -51,28 +56,41 @@ public class RateLimitingFilter extends OncePerRequestFilter implements Ordered
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
 
-        // Skip rate limiting for non-API requests
+        // Skip rate limiting for non-API requests, or entirely when it is disabled
         String path = request.getRequestURI();
-        if (!path.startsWith("/api/")) {
+        if (!rateLimitService.isEnabled() || !path.startsWith("/api/")) {
             filterChain.doFilter(request, response);
             return;
         }
 
         // Get user ID from authentication or use IP address
         String key = getUserIdentifier(request);
-        String endpoint = request.getMethod() + ":" + path;
-
-        // Get the appropriate bucket for this user and endpoint
-        Bucket bucket = rateLimitService.resolveBucket(key, endpoint);
+        // Buckets are per policy, so keys cannot be multiplied by varying the URL
+        RateLimitService.Policy policy = rateLimitService.resolvePolicy(request.getMethod(), path);
 
-        // Try to consume a token from the bucket
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        // Try to consume this request's cost from this user's bucket for the policy
+        long cost = policy.initialCost(request.getContentLengthLong());
+        if (cost > policy.capacity()) {
+            // Could never pass, and letting it through would take more than a whole bucket
+            response.setStatus(413); // HTTP 413 Content Too Large
+            response.addHeader("X-Rate-Limit-Limit", String.valueOf(policy.capacity()));
+            response.getWriter().write("Request exceeds the rate limit. Please send smaller batches.");
+            return;
+        }
+        request.setAttribute(POLICY_ATTRIBUTE, policy);
+        ConsumptionProbe probe = rateLimitService.tryConsume(key, policy, cost);
 
         if (probe.isConsumed()) {
             // Request allowed, add rate limit headers
             response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
-            response.addHeader("X-Rate-Limit-Limit", String.valueOf(bucket.getAvailableTokens()));
-            filterChain.doFilter(request, response);
+            response.addHeader("X-Rate-Limit-Limit", String.valueOf(policy.capacity()));
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                if (policy.settlesOnItems()) {
+                    settleItems(request, key, policy, cost);
+                }
+            }
         } else {
             // Rate limit exceeded
             response.setStatus(429); // HTTP 429 Too Many Requests
@@ -81,6 +99,35 @@ public class RateLimitingFilter extends OncePerRequestFilter implements Ordered
         }
     }
 
+    /**
+     * Records the number of items an ingestion request received, for
+     * settling an "items" charge.
+     *
+     * @return false if there are more items than the request's policy
+     * allows per refill period; the request must then be rejected with 413
+     * without storing anything
+     */
+    public static boolean recordItems(HttpServletRequest request, int items) {
+        request.setAttribute(ITEMS_ATTRIBUTE, items);
+        return !(request.getAttribute(POLICY_ATTRIBUTE) instanceof RateLimitService.Policy policy)
+                || !policy.settlesOnItems()
+                || items <= policy.capacity();
+    }
+
+    /**
+     * Charges an "items" request for what was actually stored: one token per
+     * accepted item (at least one for the request), refunding the estimate
+     * for items that were rejected. Requests that reported nothing keep the
+     * estimate.
+     */
+    private void settleItems(HttpServletRequest request, String key, RateLimitService.Policy policy, long charged) {
+        if (!(request.getAttribute(ITEMS_ATTRIBUTE) instanceof Integer)) {
+            return;
+        }
+        long accepted = request.getAttribute(ACCEPTED_ITEMS_ATTRIBUTE) instanceof Integer count ? count : 0;
+        rateLimitService.settle(key, policy, charged, Math.max(1, accepted));
+    }
+
 
 
 }
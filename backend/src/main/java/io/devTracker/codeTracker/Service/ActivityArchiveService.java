@@ -0,0 +1,282 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Model.Activity;
+import io.devTracker.codeTracker.Model.ActivityArchiveSegment;
+import io.devTracker.codeTracker.Repository.ActivityArchiveSegmentRepository;
+import io.devTracker.codeTracker.Repository.ActivitySegmentStore;
+import io.devTracker.codeTracker.Repository.CustomActivityRepository;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Retention tiering for raw activities.
+ *
+ * A scheduled job rolls activities older than the configured age into one
+ * compressed segment per user and calendar month, records the segment in
+ * activity_archive_segments and then deletes the raw documents. Reads that
+ * span archived months go through {@link #findActivities}, which merges the
+ * hot collection with the cold segments. The activity list, pages and
+ * delete endpoints also reach archived activities, through ActivityService.
+ *
+ * In timeseries storage mode deleting raw documents by _id requires
+ * MongoDB 7.0 or newer.
+ */
+@Service
+public class ActivityArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityArchiveService.class);
+
+    // Overview week/month counts read only the hot collection
+    private static final int MIN_AGE_DAYS = 31;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CustomActivityRepository customActivityRepository;
+
+    @Autowired
+    private ActivityArchiveSegmentRepository segmentRepository;
+
+    @Autowired
+    private ActivitySegmentStore segmentStore;
+
+    @Value("${activity.retention.enabled:false}")
+    private boolean enabled;
+
+    @Value("${activity.retention.max-age-days:365}")
+    private int maxAgeDays;
+
+    /**
+     * Scheduled job that archives every complete month older than the
+     * configured age. Runs nightly by default.
+     */
+    @Scheduled(cron = "${activity.retention.cron:0 30 3 * * *}")
+    public void archiveOldActivities() {
+        if (!enabled) {
+            return;
+        }
+
+        Date cutoff = getArchiveCutoff();
+        logger.info("Archiving raw activities older than {}", cutoff);
+
+        int segments = 0;
+        for (Document group : findMonthsToArchive(cutoff)) {
+            Document id = (Document) group.get("_id");
+            String userId = id.getString("userId");
+            YearMonth month = YearMonth.parse(id.getString("month"));
+            try {
+                archiveMonth(userId, month);
+                segments++;
+            } catch (Exception e) {
+                // Raw activities stay in place and the month is retried on the next run
+                logger.error("Failed to archive activities of user {} for {}", userId, month, e);
+            }
+        }
+        logger.info("Archived {} user-month segments", segments);
+    }
+
+    /**
+     * Rolls one user's activities of one month into a segment, merging with an
+     * existing segment for that month, then deletes the raw documents.
+     */
+    public synchronized void archiveMonth(String userId, YearMonth month) throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        Date periodStart = Date.from(month.atDay(1).atStartOfDay(zone).toInstant());
+        Date periodEnd = Date.from(month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant());
+
+        List<Activity> raw = customActivityRepository.findByUserIdAndStartTimeRange(userId, periodStart, periodEnd);
+        if (raw.isEmpty()) {
+            return;
+        }
+
+        String segmentId = userId + "-" + month;
+        ActivityArchiveSegment existing = segmentRepository.findById(segmentId).orElse(null);
+
+        // Merge with a previous segment; ids dedupe re-runs after a crash before the raw delete
+        Map<String, Activity> merged = new LinkedHashMap<>();
+        if (existing != null) {
+            ActivitySegmentCodec.decode(segmentStore.read(existing.getLocation()))
+                    .forEach(a -> merged.put(a.getId(), a));
+        }
+        raw.forEach(a -> merged.put(a.getId(), a));
+
+        int sizeBytes = writeSegment(userId, month, new ArrayList<>(merged.values()), existing);
+
+        // Only delete what was actually written into the segment
+        List<String> ids = raw.stream().map(Activity::getId).collect(Collectors.toList());
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), Activity.class);
+
+        logger.info("Archived {} activities of user {} for {} ({} bytes)", raw.size(), userId, month, sizeBytes);
+    }
+
+    /**
+     * Deletes one archived activity of a user by rewriting its segment.
+     *
+     * @return the deleted activity, or null if none of the user's segments holds it
+     */
+    public synchronized Activity deleteArchived(String userId, String activityId) throws IOException {
+        for (ActivityArchiveSegment segment : segmentRepository.findByUserId(userId)) {
+            List<Activity> activities = ActivitySegmentCodec.decode(segmentStore.read(segment.getLocation()));
+            Activity deleted = null;
+            for (Activity a : activities) {
+                if (a.getId().equals(activityId)) {
+                    deleted = a;
+                }
+            }
+            if (deleted == null) {
+                continue;
+            }
+
+            activities.remove(deleted);
+            if (activities.isEmpty()) {
+                segmentRepository.delete(segment);
+                segmentStore.delete(segment.getLocation());
+            } else {
+                writeSegment(userId, YearMonth.parse(segment.getMonth()), activities, segment);
+            }
+            return deleted;
+        }
+        return null;
+    }
+
+    /**
+     * Encodes a month's activities into a segment, records it and removes
+     * the blob of the segment it replaces.
+     *
+     * @return compressed size in bytes
+     */
+    private int writeSegment(String userId, YearMonth month, List<Activity> activities,
+                             ActivityArchiveSegment existing) throws IOException {
+        String segmentId = userId + "-" + month;
+        ZoneId zone = ZoneId.systemDefault();
+        activities.sort(Comparator.comparing(Activity::getStartTime));
+        byte[] data = ActivitySegmentCodec.encode(activities);
+        String location = segmentStore.write(segmentId, data);
+
+        ActivityArchiveSegment segment = ActivityArchiveSegment.builder()
+                .id(segmentId)
+                .userId(userId)
+                .month(month.toString())
+                .periodStart(Date.from(month.atDay(1).atStartOfDay(zone).toInstant()))
+                .periodEnd(Date.from(month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant()))
+                .activityCount(activities.size())
+                .storage(segmentStore.type())
+                .location(location)
+                .sizeBytes(data.length)
+                .createdAt(existing != null ? existing.getCreatedAt() : null)
+                .build();
+        segmentRepository.save(segment);
+
+        if (existing != null && !existing.getLocation().equals(location)) {
+            segmentStore.delete(existing.getLocation());
+        }
+        return data.length;
+    }
+
+    /**
+     * Activities of a user with startTime in [from, to), read across the hot
+     * collection and the cold archive. Either bound may be null.
+     */
+    public List<Activity> findActivities(String userId, Date from, Date to) {
+        List<Activity> activities = new ArrayList<>(findArchived(userId, from, to));
+        activities.addAll(customActivityRepository.findByUserIdAndStartTimeRange(userId, from, to));
+        return activities;
+    }
+
+    /**
+     * Whether any archive segment of the user overlaps [from, to), without
+     * reading the segments. Either bound may be null.
+     */
+    public boolean hasArchived(String userId, Date from, Date to) {
+        return !findSegments(userId, from, to).isEmpty();
+    }
+
+    /**
+     * Total number of activities held in the cold archive for a user.
+     */
+    public long countArchived(String userId) {
+        return segmentRepository.findByUserId(userId).stream()
+                .mapToLong(ActivityArchiveSegment::getActivityCount)
+                .sum();
+    }
+
+    /**
+     * Archived activities of a user with startTime in [from, to), from the
+     * cold segments only. Either bound may be null.
+     */
+    public List<Activity> findArchived(String userId, Date from, Date to) {
+        List<ActivityArchiveSegment> segments = findSegments(userId, from, to);
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+
+        List<Activity> result = new ArrayList<>();
+        for (ActivityArchiveSegment segment : segments) {
+            try {
+                for (Activity a : ActivitySegmentCodec.decode(segmentStore.read(segment.getLocation()))) {
+                    Date start = a.getStartTime();
+                    if ((from == null || !start.before(from)) && (to == null || start.before(to))) {
+                        result.add(a);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archive segment " + segment.getId(), e);
+            }
+        }
+        return result;
+    }
+
+    private List<ActivityArchiveSegment> findSegments(String userId, Date from, Date to) {
+        return segmentRepository.findByUserIdAndPeriodStartLessThanAndPeriodEndGreaterThan(
+                userId,
+                to != null ? to : new Date(Long.MAX_VALUE),
+                from != null ? from : new Date(Long.MIN_VALUE));
+    }
+
+    /**
+     * Start of the newest month that may be archived: only complete months
+     * entirely older than the configured age are rolled up.
+     */
+    private Date getArchiveCutoff() {
+        int age = Math.max(maxAgeDays, MIN_AGE_DAYS);
+        LocalDate firstOfMonth = LocalDate.now().minusDays(age).withDayOfMonth(1);
+        return Date.from(firstOfMonth.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private List<Document> findMonthsToArchive(Date cutoff) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("startTime").lt(cutoff)),
+                Aggregation.project("userId")
+                        .and(DateOperators.DateToString.dateOf("startTime")
+                                .toString("%Y-%m")
+                                .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId())))
+                        .as("month"),
+                Aggregation.group("userId", "month")
+        );
+        return mongoTemplate.aggregate(aggregation, Activity.class, Document.class).getMappedResults();
+    }
+}
@@ -0,0 +1,174 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Model.Activity;
+import io.devTracker.codeTracker.Config.TieredCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of a user's activities split into one segment per local day, keyed
+ * userId-yyyy-MM-dd in the "activityDays" cache.
+ *
+ * A date window is answered by concatenating the cached days and loading
+ * only the missing runs of days from MongoDB (and the archive). Only days
+ * before today are cached: today is still being written, and a read racing
+ * an ingest could otherwise put back a segment from before the write.
+ * Past days rarely change, so their segments are only invalidated for the
+ * days a write touches. The cached days of a window are fetched with one
+ * batched lookup per cache tier.
+ */
+@Component
+public class ActivityDayCache {
+
+    static final String CACHE_NAME = "activityDays";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ActivityArchiveService activityArchiveService;
+
+    // Wider windows bypass the cache instead of filling it with one-off days
+    @Value("${activity.day-cache.max-days:400}")
+    private int maxDays;
+
+    /**
+     * Activities of a user with startTime in [from, to), sorted by startTime,
+     * or null if the window is too wide to be served from day segments.
+     */
+    public List<Activity> findActivities(String userId, Date from, Date to) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate firstDay = toLocalDate(from, zone);
+        LocalDate lastDay = toLocalDate(new Date(to.getTime() - 1), zone);
+        if (lastDay.isBefore(firstDay)) {
+            return List.of();
+        }
+        if (firstDay.plusDays(maxDays).isBefore(lastDay)) {
+            return null;
+        }
+
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        LocalDate today = LocalDate.now(zone);
+        Map<LocalDate, List<Activity>> segments = getCached(cache, userId, firstDay,
+                lastDay.isBefore(today) ? lastDay : today.minusDays(1));
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            if (!segments.containsKey(day)) {
+                missing.add(day);
+            }
+        }
+
+        // Load each contiguous run of missing days with a single range query
+        int runStart = 0;
+        for (int i = 1; i <= missing.size(); i++) {
+            if (i == missing.size() || !missing.get(i).equals(missing.get(i - 1).plusDays(1))) {
+                segments.putAll(loadDays(cache, userId, missing.get(runStart), missing.get(i - 1), today, zone));
+                runStart = i;
+            }
+        }
+
+        List<Activity> result = new ArrayList<>();
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            for (Activity activity : segments.getOrDefault(day, List.of())) {
+                Date start = activity.getStartTime();
+                if (!start.before(from) && start.before(to)) {
+                    result.add(activity);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evicts the segments of every day the given activities start on.
+     */
+    public void evictDays(String userId, Collection<Activity> activities) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        ZoneId zone = ZoneId.systemDefault();
+        Set<LocalDate> days = new LinkedHashSet<>();
+        for (Activity activity : activities) {
+            if (activity.getStartTime() != null) {
+                days.add(toLocalDate(activity.getStartTime(), zone));
+            }
+        }
+        days.forEach(day -> cache.evict(key(userId, day)));
+    }
+
+    /**
+     * Cached segments of the days in [first, last], by day.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<LocalDate, List<Activity>> getCached(Cache cache, String userId, LocalDate first, LocalDate last) {
+        Map<LocalDate, List<Activity>> segments = new HashMap<>();
+        if (last.isBefore(first)) {
+            return segments;
+        }
+        if (cache instanceof TieredCache tiered) {
+            List<String> keys = new ArrayList<>();
+            for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                keys.add(key(userId, day));
+            }
+            Map<String, Object> found = tiered.getAllPresent(keys);
+            for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                Object segment = found.get(key(userId, day));
+                if (segment != null) {
+                    segments.put(day, (List<Activity>) segment);
+                }
+            }
+            return segments;
+        }
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            List<Activity> segment = cache.get(key(userId, day), List.class);
+            if (segment != null) {
+                segments.put(day, segment);
+            }
+        }
+        return segments;
+    }
+
+    private Map<LocalDate, List<Activity>> loadDays(Cache cache, String userId, LocalDate first, LocalDate last,
+                                                    LocalDate today, ZoneId zone) {
+        Date rangeStart = Date.from(first.atStartOfDay(zone).toInstant());
+        Date rangeEnd = Date.from(last.plusDays(1).atStartOfDay(zone).toInstant());
+
+        Map<LocalDate, List<Activity>> loaded = new HashMap<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            loaded.put(day, new ArrayList<>());
+        }
+        for (Activity activity : activityArchiveService.findActivities(userId, rangeStart, rangeEnd)) {
+            loaded.get(toLocalDate(activity.getStartTime(), zone)).add(activity);
+        }
+
+        // Empty days are cached too, so quiet days are not queried again
+        loaded.forEach((day, segment) -> {
+            segment.sort(Comparator.comparing(Activity::getStartTime));
+            if (day.isBefore(today)) {
+                cache.put(key(userId, day), segment);
+            }
+        });
+        return loaded;
+    }
+
+    private static LocalDate toLocalDate(Date date, ZoneId zone) {
+        return date.toInstant().atZone(zone).toLocalDate();
+    }
+
+    private static String key(String userId, LocalDate day) {
+        return userId + "-" + day;
+    }
+}
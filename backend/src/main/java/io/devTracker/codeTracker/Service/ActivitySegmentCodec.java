@@ -0,0 +1,150 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Model.Activity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary format of a cold-archive segment.
+ *
+ * Layout: magic, version, uncompressed length, then a deflate stream holding
+ * the activity count followed by one record per activity. Strings are written
+ * with a presence flag, dates as epoch millis (Long.MIN_VALUE for null).
+ */
+final class ActivitySegmentCodec {
+
+    private static final int MAGIC = 0x44544153; // "DTAS"
+    private static final int VERSION = 1;
+
+    private ActivitySegmentCodec() {
+    }
+
+    static byte[] encode(List<Activity> activities) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(raw)) {
+            out.writeInt(activities.size());
+            for (Activity a : activities) {
+                writeString(out, a.getId());
+                writeString(out, a.getUserId());
+                writeString(out, a.getProjectId());
+                writeString(out, a.getProjectName());
+                writeString(out, a.getLanguage());
+                writeDate(out, a.getStartTime());
+                writeDate(out, a.getEndTime());
+                writeString(out, a.getFile());
+                out.writeInt(a.getTimeSpent() != null ? a.getTimeSpent() : -1);
+                writeString(out, a.getSessionId());
+                writeString(out, a.getFileExtension());
+                writeDate(out, a.getCreatedAt());
+                writeDate(out, a.getUpdatedAt());
+            }
+        }
+        byte[] uncompressed = raw.toByteArray();
+
+        // Segments are written once and read rarely, so favour ratio over speed
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(uncompressed);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(uncompressed.length / 4 + 64);
+            try (DataOutputStream out = new DataOutputStream(compressed)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(uncompressed.length);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(buffer);
+                    out.write(buffer, 0, n);
+                }
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static List<Activity> decode(ByteBuffer segment) throws IOException {
+        ByteBuffer in = segment.duplicate();
+        if (in.remaining() < 12 || in.getInt() != MAGIC) {
+            throw new IOException("Not an activity archive segment");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported archive segment version " + version);
+        }
+        byte[] uncompressed = new byte[in.getInt()];
+
+        Inflater inflater = new Inflater();
+        try {
+            // Inflate straight from the (possibly memory-mapped) buffer
+            inflater.setInput(in);
+            int read = 0;
+            while (read < uncompressed.length) {
+                int n = inflater.inflate(uncompressed, read, uncompressed.length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated archive segment");
+                }
+                read += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive segment", e);
+        } finally {
+            inflater.end();
+        }
+
+        try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(uncompressed))) {
+            int count = data.readInt();
+            List<Activity> activities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Activity a = new Activity();
+                a.setId(readString(data));
+                a.setUserId(readString(data));
+                a.setProjectId(readString(data));
+                a.setProjectName(readString(data));
+                a.setLanguage(readString(data));
+                a.setStartTime(readDate(data));
+                a.setEndTime(readDate(data));
+                a.setFile(readString(data));
+                int timeSpent = data.readInt();
+                a.setTimeSpent(timeSpent >= 0 ? timeSpent : null);
+                a.setSessionId(readString(data));
+                a.setFileExtension(readString(data));
+                a.setCreatedAt(readDate(data));
+                a.setUpdatedAt(readDate(data));
+                activities.add(a);
+            }
+            return activities;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDate(DataOutputStream out, Date value) throws IOException {
+        out.writeLong(value != null ? value.getTime() : Long.MIN_VALUE);
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        long millis = in.readLong();
+        return millis != Long.MIN_VALUE ? new Date(millis) : null;
+    }
+}
@@ -1,16 +1,19 @@
 package io.devTracker.codeTracker.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 
 import io.devTracker.codeTracker.Model.Project;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +21,7 @@ import io.devTracker.codeTracker.Dto.ActivityDTO;
 import io.devTracker.codeTracker.Model.User;
 import io.devTracker.codeTracker.Model.Activity;
 import io.devTracker.codeTracker.Repository.ActivityRepository;
+import io.devTracker.codeTracker.Repository.CustomActivityRepository;
 
 
 @Service
@@ -25,13 +29,24 @@ public class ActivityService {
     @Autowired
     private ActivityRepository activityRepository;
 
+    @Autowired
+    private CustomActivityRepository customActivityRepository;
+
     @Autowired
     private ProjectService projectService;
 
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ActivityDayCache activityDayCache;
+
+    @Autowired
+    private ActivityArchiveService activityArchiveService;
 
-    @CacheEvict(value = {"overview", "projectActivities", "heatmap"}, 
-               key = "#user.id", 
-               condition = "#activityRequests != null && !#activityRequests.isEmpty()")
     public List<Activity> submitActivities(List<ActivityDTO.ActivityRequest> activityRequests, User user) {
         List<Activity> activities = activityRequests.stream()
                 .map(req -> {
@@ -53,14 +68,14 @@ public class ActivityService {
                         .build();
                 })
                 .collect(Collectors.toList());
-        return activityRepository.saveAll(activities);
+        activities = customActivityRepository.withoutDuplicates(user.getId(), activities);
+        List<Activity> savedActivities = activityRepository.saveAll(activities);
+        userStatsService.recordActivities(user.getId(), savedActivities);
+        cacheInvalidationService.activitiesChanged(user.getId(), savedActivities);
+        return savedActivities;
     }
 
 
-    @CacheEvict(value = {"overview", "projectActivities", "heatmap"}, 
-               key = "#user.id", 
-               allEntries = true,
-               condition = "#activityRequests != null && !#activityRequests.isEmpty()")
     public List<Activity> submitBatchActivities(List<ActivityDTO.ActivityRequest> activityRequests, User user) {
         System.out.println("\n========== ACTIVITY BATCH START ==========");
         System.out.println("👤 User: " + user.getId());
@@ -116,7 +131,10 @@ public class ActivityService {
         });
 
         // Save and log
+        activities = customActivityRepository.withoutDuplicates(user.getId(), activities);
         List<Activity> savedActivities = activityRepository.saveAll(activities);
+        userStatsService.recordActivities(user.getId(), savedActivities);
+        cacheInvalidationService.activitiesChanged(user.getId(), savedActivities);
         System.out.println("Saved " + savedActivities.size() + " activities to database");
         savedActivities.forEach(act -> System.out.println("Saved activity: ID=" + act.getId() 
             + ", projectId=" + act.getProjectId() 
@@ -132,19 +150,46 @@ public class ActivityService {
 
 
     public boolean deleteActivity(String activityId, User user) {
-        return activityRepository.findById(activityId)
-                .map(activity -> {
-                    if (!activity.getUserId().equals(user.getId())) {
-                        throw new SecurityException("Access denied");
-                    }
-                    activityRepository.delete(activity);
-                    return true;
-                }).orElse(false);
+        Activity activity = activityRepository.findById(activityId).orElse(null);
+        if (activity != null) {
+            if (!activity.getUserId().equals(user.getId())) {
+                throw new SecurityException("Access denied");
+            }
+            activityRepository.delete(activity);
+        } else {
+            // Archive segments are per user, so another user's id is simply not found
+            try {
+                activity = activityArchiveService.deleteArchived(user.getId(), activityId);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to delete archived activity " + activityId, e);
+            }
+            if (activity == null) {
+                return false;
+            }
+        }
+        userStatsService.recordActivityDeleted(activity);
+        cacheInvalidationService.activitiesChanged(user.getId(), List.of(activity));
+        return true;
     }
 
 
-    @Cacheable(value = "projectActivities", key = "#userId + '-' + (#projectId != null ? #projectId : #projectName)")
     public List<Activity> findActivities(String userId, String projectName, String projectId, Date from, Date to) {
+        if (from != null && to != null) {
+            // Date windows are assembled from cached per-day segments
+            List<Activity> activities = activityDayCache.findActivities(userId, from, to);
+            if (activities != null) {
+                return activities.stream()
+                        .filter(a -> projectId != null ? projectId.equals(a.getProjectId())
+                                : projectName == null || projectName.equals(a.getProjectName()))
+                        .collect(Collectors.toList());
+            }
+        }
+        List<Activity> activities = new ArrayList<>(findHotActivities(userId, projectName, projectId, from, to));
+        activities.addAll(findArchivedActivities(userId, projectName, projectId, from, to));
+        return activities;
+    }
+
+    private List<Activity> findHotActivities(String userId, String projectName, String projectId, Date from, Date to) {
         if (projectId != null) {
             if (from != null && to != null) {
                 return activityRepository.findByUserIdAndProjectIdAndStartTimeBetween(userId, projectId, from, to);
@@ -163,15 +208,57 @@ public class ActivityService {
         return activityRepository.findByUserId(userId);
     }
 
+    /**
+     * Archived activities matching the same filters, newest first.
+     */
+    private List<Activity> findArchivedActivities(String userId, String projectName, String projectId, Date from, Date to) {
+        return activityArchiveService.findArchived(userId, from, to).stream()
+                .filter(a -> projectId != null ? projectId.equals(a.getProjectId())
+                        : projectName == null || projectName.equals(a.getProjectName()))
+                .sorted(Comparator.comparing(Activity::getStartTime).reversed())
+                .collect(Collectors.toList());
+    }
 
+    /**
+     * Appends archived activities after the live ones. The pages are sorted
+     * by startTime descending and only months older than the retention age
+     * are archived, so archived activities come after every live one (a
+     * late upload for an archived month is archived on the next run).
+     */
+    private Page<Activity> withArchived(Page<Activity> hot, Pageable pageable, String userId,
+                                        String projectName, String projectId, Date from, Date to) {
+        if (!activityArchiveService.hasArchived(userId, from, to)) {
+            return hot;
+        }
+        long hotTotal = hot.getTotalElements();
+        long end = pageable.getOffset() + pageable.getPageSize();
+        boolean unfiltered = projectName == null && projectId == null && from == null && to == null;
+        if (unfiltered && end <= hotTotal) {
+            // Whole page is live; the segment index has the archived count without reading segments
+            return new PageImpl<>(hot.getContent(), pageable, hotTotal + activityArchiveService.countArchived(userId));
+        }
+
+        List<Activity> archived = findArchivedActivities(userId, projectName, projectId, from, to);
+        List<Activity> content = new ArrayList<>(hot.getContent());
+        if (end > hotTotal) {
+            long skip = Math.max(0, pageable.getOffset() - hotTotal);
+            archived.stream().skip(skip).limit(pageable.getPageSize() - content.size()).forEach(content::add);
+        }
+        return new PageImpl<>(content, pageable, hotTotal + archived.size());
+    }
 
     public Page<Activity> findActivitiesPage(String userId, Pageable pageable) {
-        return activityRepository.findByUserId(userId, pageable);
+        return withArchived(activityRepository.findByUserId(userId, pageable), pageable, userId, null, null, null, null);
     }
 
     
 
     public Page<Activity> findActivitiesPage(String userId, String projectName, String projectId, Date from, Date to, Pageable pageable) {
+        return withArchived(findHotActivitiesPage(userId, projectName, projectId, from, to, pageable),
+                pageable, userId, projectName, projectId, from, to);
+    }
+
+    private Page<Activity> findHotActivitiesPage(String userId, String projectName, String projectId, Date from, Date to, Pageable pageable) {
         if (projectId != null) {
             if (from != null && to != null) {
                 return activityRepository.findByUserIdAndProjectIdAndStartTimeBetween(userId, projectId, from, to, pageable);
@@ -0,0 +1,149 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Config.ActivityStorageConfig;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copies activities from the standard "activities" collection into the
+ * time-series collection.
+ *
+ * Documents are copied in _id order, and the last copied _id is recorded in
+ * a checkpoint document after each batch, so an interrupted run can simply
+ * be started again. The target's own highest _id cannot be used for this,
+ * since live writes in time-series mode add newer ids to it. Documents of
+ * the batch after the checkpoint that were inserted before the interruption
+ * are not copied twice.
+ */
+@Service
+public class ActivityStorageMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActivityStorageMigrationService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ActivityStorageConfig storageConfig;
+
+    static final String CHECKPOINT_COLLECTION = "migration_checkpoints";
+
+    @Value("${activity.storage.migration.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Migrate all activities into the time-series collection.
+     *
+     * @return number of activities copied by this run
+     */
+    public long migrateToTimeSeries() {
+        String source = ActivityStorageConfig.STANDARD_COLLECTION;
+        String target = storageConfig.getTimeSeriesCollection();
+        storageConfig.ensureTimeSeriesCollection(mongoTemplate);
+
+        String checkpointId = source + "->" + target;
+        Object lastId = findCheckpoint(checkpointId);
+        boolean resuming = lastId != null;
+        if (resuming) {
+            logger.info("Resuming activity migration after _id {}", lastId);
+        }
+
+        long copied = 0;
+        long skipped = 0;
+        while (true) {
+            Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(batchSize);
+            if (lastId != null) {
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            List<Document> batch = mongoTemplate.find(query, Document.class, source);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<Document> converted = new ArrayList<>(batch.size());
+            for (Document doc : batch) {
+                // Time-series collections reject documents without a timeField
+                if (doc.get("startTime") == null) {
+                    skipped++;
+                    continue;
+                }
+                doc.put("meta", new Document("userId", doc.get("userId"))
+                        .append("projectId", doc.get("projectId"))
+                        .append("language", doc.get("language")));
+                converted.add(doc);
+            }
+            if (resuming) {
+                // The run may have stopped between inserting this batch and saving the checkpoint
+                converted = withoutCopied(converted, target);
+                resuming = false;
+            }
+            if (!converted.isEmpty()) {
+                mongoTemplate.getCollection(target).insertMany(converted);
+            }
+
+            copied += converted.size();
+            lastId = batch.get(batch.size() - 1).get("_id");
+            saveCheckpoint(checkpointId, lastId);
+            logger.info("Migrated {} activities to {} so far", copied, target);
+        }
+
+        logger.info("Activity migration finished: {} copied, {} skipped without startTime", copied, skipped);
+        return copied;
+    }
+
+    private Object findCheckpoint(String checkpointId) {
+        Document checkpoint = mongoTemplate.findById(checkpointId, Document.class, CHECKPOINT_COLLECTION);
+        return checkpoint != null ? checkpoint.get("lastId") : null;
+    }
+
+    private void saveCheckpoint(String checkpointId, Object lastId) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(checkpointId)),
+                new Update().set("lastId", lastId).set("updatedAt", new Date()),
+                CHECKPOINT_COLLECTION);
+    }
+
+    private List<Document> withoutCopied(List<Document> docs, String target) {
+        if (docs.isEmpty()) {
+            return docs;
+        }
+        List<Object> ids = new ArrayList<>(docs.size());
+        Date from = null;
+        Date to = null;
+        for (Document doc : docs) {
+            ids.add(doc.get("_id"));
+            Date start = doc.getDate("startTime");
+            from = from == null || start.before(from) ? start : from;
+            to = to == null || start.after(to) ? start : to;
+        }
+        // The startTime bounds let the time-series collection skip unrelated buckets
+        Query query = Query.query(Criteria.where("startTime").gte(from).lte(to).and("_id").in(ids));
+        query.fields().include("_id");
+        Set<Object> copied = new HashSet<>();
+        for (Document doc : mongoTemplate.find(query, Document.class, target)) {
+            copied.add(doc.get("_id"));
+        }
+
+        List<Document> remaining = new ArrayList<>(docs.size());
+        for (Document doc : docs) {
+            if (!copied.contains(doc.get("_id"))) {
+                remaining.add(doc);
+            }
+        }
+        return remaining;
+    }
+}
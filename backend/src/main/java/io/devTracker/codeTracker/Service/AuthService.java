@@ -3,31 +3,41 @@ package io.devTracker.codeTracker.Service;
 import io.devTracker.codeTracker.Model.User;
 import io.devTracker.codeTracker.Repository.UserRepository;
 import io.devTracker.codeTracker.Security.JwtUtil;
+import io.devTracker.codeTracker.Security.PrincipalCache;
 
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AuthService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
     public User registerUser(String email, String password) {
         if (userRepository.findByEmail(email).isPresent()) {
             throw new RuntimeException("Email already registered");
         }
         User user = User.builder()
                 .email(email)
-                .password(passwordEncoder.encode(password))
+                .password(passwordHashingService.hash(password))
                 .provider("local")
                 .build();
         return userRepository.save(user);
@@ -35,14 +45,36 @@ public class AuthService {
 
     public Optional<String> loginUser(String email, String password) {
         Optional<User> userOptional = userRepository.findByEmail(email);
-        if (userOptional.isEmpty() || !passwordEncoder.matches(password, userOptional.get().getPassword())) {
+        if (userOptional.isEmpty() || !passwordHashingService.matches(password, userOptional.get().getPassword())) {
             return Optional.empty();
         }
+        rehashIfNeeded(userOptional.get(), password);
         String token = jwtUtil.generateToken(userOptional.get().getId(), userOptional.get().getEmail());
+        cacheWarmupService.warmUp(userOptional.get());
         return Optional.of(token);
     }
 
+    /**
+     * Re-hashes the password with the configured BCrypt cost after a
+     * successful login, while the plain password is at hand. Skipped when
+     * hashing is busy; the next login tries again.
+     */
+    private void rehashIfNeeded(User user, String password) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordHashingService.hash(password));
+            userRepository.save(user);
+            principalCache.invalidate(user.getId());
+            logger.info("Re-hashed password for user {} with the configured cost", user.getId());
+        } catch (PasswordHashingService.BusyException e) {
+            logger.debug("Skipped password re-hash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
     public String generateToken(User user) {
+        cacheWarmupService.warmUp(user);
         return jwtUtil.generateToken(user.getId(), user.getEmail());
     }
 
@@ -56,7 +88,9 @@ public class AuthService {
             user.setUsername(username);
             user.setName(name);
             // You might want to store the GitHub token securely
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            principalCache.invalidate(savedUser.getId());
+            return savedUser;
         } else {
             // Create new GitHub user
             User newUser = User.builder()
@@ -79,7 +113,9 @@ public class AuthService {
             user.setProvider("google");
             user.setName(name);
             // You might want to store the Google token securely
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            principalCache.invalidate(savedUser.getId());
+            return savedUser;
         } else {
             // Create new Google user
             User newUser = User.builder()
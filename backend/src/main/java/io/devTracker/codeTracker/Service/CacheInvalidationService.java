@@ -0,0 +1,117 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Config.RefreshingCaffeineCache;
+import io.devTracker.codeTracker.Model.Activity;
+import io.devTracker.codeTracker.Model.Project;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Tag-based invalidation of the report caches.
+ *
+ * Every cache key starts with the user id and carries its other tags as
+ * qualifiers, so the entries affected by a tag can be computed exactly:
+ * <ul>
+ *   <li>overview: userId-epochDay</li>
+ *   <li>heatmap: userId-year</li>
+ *   <li>summary: userId-period</li>
+ *   <li>projects: userId (list) and userId-projectId</li>
+ *   <li>activityDays: userId-yyyy-MM-dd</li>
+ * </ul>
+ * Writes invalidate the user, project and year tags they touch instead of
+ * wiping whole caches. Evictions go through the cache, so tiered caches also
+ * clear the shared tier and other nodes. Every invalidation then bumps the
+ * user's data version, which invalidates HTTP validators (ETags); the bump
+ * comes last, so a request that sees the new version cannot be answered
+ * from an entry that is about to be evicted.
+ */
+@Service
+public class CacheInvalidationService {
+
+    private static final String[] SUMMARY_PERIODS = {"day", "week", "month"};
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ActivityDayCache activityDayCache;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private ReportSnapshotService reportSnapshotService;
+
+    /**
+     * Invalidates what a batch of new or deleted activities affects: the
+     * overview, the period summaries, the heatmap of each year touched, the
+     * day segments of each day touched and the snapshots of any closed
+     * period a backfill landed in.
+     */
+    public void activitiesChanged(String userId, Collection<Activity> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> years = new LinkedHashSet<>();
+        for (Activity activity : activities) {
+            if (activity.getStartTime() != null) {
+                years.add(activity.getStartTime().toInstant().atZone(ZoneId.systemDefault()).getYear());
+            }
+        }
+
+        evict("overview", OverviewService.cacheKey(userId));
+        for (String period : SUMMARY_PERIODS) {
+            evict("summary", userId + "-" + period);
+        }
+        years.forEach(year -> evict("heatmap", userId + "-" + year));
+        activityDayCache.evictDays(userId, activities);
+        reportSnapshotService.invalidate(userId, activities);
+        dataVersionService.bump(userId);
+        // Again after the bump: a snapshot built from the old data and saved since
+        // the first delete is removed here, or refused by its builder's version check
+        reportSnapshotService.invalidate(userId, activities);
+    }
+
+    /**
+     * Invalidates a created, renamed or deleted project. Activities keep the
+     * project name they were recorded with, so day segments are unaffected.
+     */
+    public void projectChanged(Project project) {
+        String userId = project.getUserId();
+        evict("overview", OverviewService.cacheKey(userId));
+        evict("projects", userId);
+        evict("projects", userId + "-" + project.getId());
+        dataVersionService.bump(userId);
+    }
+
+    /**
+     * Invalidates every cached entry of a user across all caches.
+     */
+    public void userChanged(String userId) {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof RefreshingCaffeineCache caffeineCache) {
+                caffeineCache.evict(userId);
+                caffeineCache.evictByPrefix(userId + "-");
+            } else if (cache != null) {
+                cache.evict(userId);
+            }
+        }
+        dataVersionService.bump(userId);
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
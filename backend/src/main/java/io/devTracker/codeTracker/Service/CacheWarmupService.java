@@ -0,0 +1,87 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Year;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Precomputes a user's dashboard caches in the background when a token is
+ * issued, so the first dashboard load after login hits warm caches.
+ *
+ * Warm-up runs on a small low-priority pool and is dropped when the pool is
+ * busy; it only ever goes through the cached service methods, so a
+ * concurrent dashboard request shares the same computation.
+ */
+@Service
+public class CacheWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    @Autowired
+    private OverviewService overviewService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    @Qualifier("cacheWarmupExecutor")
+    private Executor executor;
+
+    @Value("${cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    private final Set<String> warming = ConcurrentHashMap.newKeySet();
+
+    private final Counter submitted;
+    private final Counter rejected;
+    private final Counter failed;
+
+    public CacheWarmupService(MeterRegistry meterRegistry) {
+        this.submitted = meterRegistry.counter("cache.warmup", "result", "submitted");
+        this.rejected = meterRegistry.counter("cache.warmup", "result", "rejected");
+        this.failed = meterRegistry.counter("cache.warmup", "result", "failed");
+    }
+
+    /**
+     * Schedules warm-up of the user's overview, current-year heatmap and
+     * week summary. Never blocks the caller.
+     */
+    public void warmUp(User user) {
+        if (!enabled || user == null || user.getId() == null || !warming.add(user.getId())) {
+            return;
+        }
+        try {
+            executor.execute(() -> run(user));
+            submitted.increment();
+        } catch (RejectedExecutionException e) {
+            warming.remove(user.getId());
+            rejected.increment();
+        }
+    }
+
+    private void run(User user) {
+        String userId = user.getId();
+        try {
+            overviewService.getOverview(user);
+            reportService.getHeatmap(userId, Year.now().getValue());
+            reportService.getSummary(userId, "week");
+        } catch (Exception e) {
+            failed.increment();
+            logger.warn("Cache warm-up for user {} failed: {}", userId, e.getMessage());
+        } finally {
+            warming.remove(userId);
+        }
+    }
+}
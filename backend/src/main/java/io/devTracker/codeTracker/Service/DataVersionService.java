@@ -0,0 +1,57 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Model.UserStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+
+/**
+ * Monotonically increasing per-user data version, stored on the user_stats
+ * document and used as the validator for conditional GETs.
+ *
+ * Every write that can change what a user's dashboard shows bumps the
+ * version. Reads go through the short-lived "dataVersions" cache, which is
+ * updated in place on a bump.
+ */
+@Service
+public class DataVersionService {
+
+    public record DataVersion(long version, Date modifiedAt) {}
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Cacheable(value = "dataVersions", key = "#userId", sync = true)
+    public DataVersion getVersion(String userId) {
+        return readVersion(userId);
+    }
+
+    /**
+     * The version as stored, bypassing the cache, for callers that must see
+     * a bump made on another node at once.
+     */
+    public DataVersion readVersion(String userId) {
+        Query query = Query.query(Criteria.where("_id").is(userId));
+        query.fields().include("dataVersion", "dataModifiedAt");
+        UserStats stats = mongoTemplate.findOne(query, UserStats.class);
+        return stats == null ? new DataVersion(0, null) : new DataVersion(stats.getDataVersion(), stats.getDataModifiedAt());
+    }
+
+    @CachePut(value = "dataVersions", key = "#userId")
+    public DataVersion bump(String userId) {
+        UserStats stats = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(userId)),
+                new Update().inc("dataVersion", 1).set("dataModifiedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                UserStats.class);
+        return new DataVersion(stats.getDataVersion(), stats.getDataModifiedAt());
+    }
+}
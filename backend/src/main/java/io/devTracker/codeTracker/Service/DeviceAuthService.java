@@ -11,16 +11,22 @@ import io.devTracker.codeTracker.Repository.DeviceRepository;
 import io.devTracker.codeTracker.Repository.UserRepository;
 import io.devTracker.codeTracker.Security.JwtUtil;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class DeviceAuthService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceAuthService.class);
     
     @Autowired
     private DeviceRepository deviceRepository;
@@ -39,6 +45,15 @@ public class DeviceAuthService {
     
     @Autowired
     private JwtUtil jwtUtil;
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Autowired
+    private PendingDeviceRegistry pendingDeviceRegistry;
+
+    @Autowired
+    private DeviceHeartbeatService deviceHeartbeatService;
     
     @Value("${app.device-auth.expiration:600}") // 10 minutes default
     private int deviceCodeExpirationSeconds;
@@ -69,6 +84,7 @@ public class DeviceAuthService {
                 .build();
         
         deviceRepository.save(device);
+        pendingDeviceRegistry.register(deviceCode, device.getExpiresAt());
         
         // Build verification URL
         String verificationUrl = String.format("%s/auth/device/confirm?code=%s", 
@@ -96,14 +112,13 @@ public class DeviceAuthService {
         Device device = deviceOpt.get();
         
         // Check if device code is expired
-        if (device.getExpiresAt().before(new Date())) {
-            device.setStatus("expired");
-            deviceRepository.save(device);
+        String status = effectiveStatus(device);
+        if ("expired".equals(status)) {
             throw new RuntimeException("Device code has expired");
         }
         
         // Check if device is already approved
-        if (!"pending".equals(device.getStatus())) {
+        if (!"pending".equals(status)) {
             throw new RuntimeException("Device code is no longer valid");
         }
         
@@ -129,13 +144,27 @@ public class DeviceAuthService {
         deviceRepository.save(updatedDevice);
         
         // Generate JWT token
-        String accessToken = jwtUtil.generateToken(user.getId(), user.getEmail());
+        String accessToken = jwtUtil.generateDeviceToken(user.getId(), user.getEmail(), device.getId());
+        cacheWarmupService.warmUp(user);
         
-        return DeviceConfirmResponse.builder()
+        DeviceConfirmResponse response = DeviceConfirmResponse.builder()
                 .accessToken(accessToken)
                 .user(new UserDTO(user))
                 .deviceId(device.getDeviceId())
                 .build();
+        // Hand the same token to the extension's waiting polls
+        pendingDeviceRegistry.approve(device.getDeviceCode(), device.getExpiresAt(), response);
+        return response;
+    }
+
+    /**
+     * Waits for approval of a device code tracked on this node.
+     *
+     * @return a future completing with the token response on approval or null
+     * on expiry, or null if the code must be polled from the database
+     */
+    public CompletableFuture<DeviceConfirmResponse> awaitApproval(String deviceCode) {
+        return pendingDeviceRegistry.awaitApproval(deviceCode);
     }
 
 
@@ -148,10 +177,8 @@ public class DeviceAuthService {
     
         Device device = deviceOpt.get();
     
-        // Check if expired
+        // Check if expired; the code can no longer be exchanged for a token
         if (device.getExpiresAt().before(new Date())) {
-            device.setStatus("expired");
-            deviceRepository.save(device);
             return null;
         }
     
@@ -164,21 +191,23 @@ public class DeviceAuthService {
                     .build();
         }
     
-        // Get user from repository
-        Optional<User> userOpt = UserRepository.findById(device.getUserId());
-        if (userOpt.isEmpty()) {
-            return null; // Can't find user for approved device
-        }
-        User user = userOpt.get();
-    
-        // Generate JWT token as usual
-        String accessToken = jwtUtil.generateToken(user.getId(), user.getEmail());
-    
-        return DeviceConfirmResponse.builder()
-                .accessToken(accessToken)
-                .user(new UserDTO(user))
-                .deviceId(device.getDeviceId())
-                .build();
+        // Mint the token once per device code; later polls get the same one
+        return pendingDeviceRegistry.approvedResponse(deviceCode, device.getExpiresAt(), () -> {
+            // Get user from repository
+            Optional<User> userOpt = UserRepository.findById(device.getUserId());
+            if (userOpt.isEmpty()) {
+                return null; // Can't find user for approved device
+            }
+            User user = userOpt.get();
+
+            String accessToken = jwtUtil.generateDeviceToken(user.getId(), user.getEmail(), device.getId());
+
+            return DeviceConfirmResponse.builder()
+                    .accessToken(accessToken)
+                    .user(new UserDTO(user))
+                    .deviceId(device.getDeviceId())
+                    .build();
+        });
     }
     
 
@@ -193,29 +222,39 @@ public class DeviceAuthService {
             return "not_found";
         }
         
-        Device device = deviceOpt.get();
-        
-        if (device.getExpiresAt().before(new Date())) {
-            device.setStatus("expired");
-            deviceRepository.save(device);
+        return effectiveStatus(deviceOpt.get());
+    }
+
+    /**
+     * Status as seen by clients: a pending code past its expiry is reported as
+     * expired without writing that back; the TTL index and the sweeper remove it.
+     */
+    private static String effectiveStatus(Device device) {
+        if ("pending".equals(device.getStatus()) && device.getExpiresAt().before(new Date())) {
             return "expired";
         }
-        
         return device.getStatus();
     }
     
     /**
-     * Clean up expired devices
+     * Clean up expired devices: unconfirmed codes past their expiry and
+     * records marked expired by older versions. Approved and revoked devices
+     * are kept.
      */
+    @Scheduled(fixedDelayString = "${app.device-auth.sweep-interval:3600000}")
     public void cleanupExpiredDevices() {
-        deviceRepository.deleteByExpiresAtBefore(new Date());
+        long deleted = deviceRepository.deleteByStatusAndExpiresAtBefore("pending", new Date())
+                + deviceRepository.deleteByStatus("expired");
+        if (deleted > 0) {
+            logger.info("Removed {} expired device codes", deleted);
+        }
     }
     
     /**
-     * Get user's connected devices
+     * Get user's connected devices, with last-seen times not yet flushed
      */
     public java.util.List<Device> getUserDevices(String userId) {
-        return deviceRepository.findByUserIdAndIsActiveTrue(userId);
+        return deviceHeartbeatService.withLastSeen(deviceRepository.findByUserIdAndIsActiveTrue(userId));
     }
     
     /**
@@ -0,0 +1,94 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Model.Device;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks when each device was last seen without a Mongo write per request.
+ *
+ * Authenticated ingestion requests record a heartbeat in memory; heartbeats
+ * for the same device coalesce into the latest timestamp and are flushed
+ * to Mongo periodically as one unordered bulk update. The update uses $max,
+ * so flushes from several nodes or out of order never move lastSeen back.
+ */
+@Service
+public class DeviceHeartbeatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceHeartbeatService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Device document id -> last seen (epoch millis), not yet written to Mongo
+    private final Map<String, Long> unflushed = new ConcurrentHashMap<>();
+
+    /**
+     * Records that the device made an authenticated request just now.
+     */
+    public void recordHeartbeat(String deviceId) {
+        if (deviceId != null) {
+            unflushed.merge(deviceId, System.currentTimeMillis(), Math::max);
+        }
+    }
+
+    /**
+     * Overlays heartbeats that have not been flushed yet onto the given devices.
+     */
+    public List<Device> withLastSeen(List<Device> devices) {
+        for (Device device : devices) {
+            Long seen = unflushed.get(device.getId());
+            if (seen != null && (device.getLastSeen() == null || device.getLastSeen().getTime() < seen)) {
+                device.setLastSeen(new Date(seen));
+            }
+        }
+        return devices;
+    }
+
+    /**
+     * Writes the pending heartbeats with a single bulk update.
+     */
+    @Scheduled(fixedDelayString = "${app.device-heartbeat.flush-interval:60000}")
+    public void flush() {
+        if (unflushed.isEmpty()) {
+            return;
+        }
+        Map<String, Long> snapshot = new HashMap<>(unflushed);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Device.class);
+        snapshot.forEach((deviceId, seen) -> bulk.updateOne(
+                new Query(Criteria.where("_id").is(deviceId).and("isActive").is(true)),
+                new Update().max("lastSeen", new Date(seen))));
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            // Keep the heartbeats and retry on the next flush
+            logger.warn("Could not flush {} device heartbeats: {}", snapshot.size(), e.getMessage());
+            return;
+        }
+
+        // Entries updated since the snapshot stay for the next flush
+        snapshot.forEach(unflushed::remove);
+        logger.debug("Flushed {} device heartbeats", snapshot.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
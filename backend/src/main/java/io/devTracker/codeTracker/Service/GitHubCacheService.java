@@ -1,84 +1,242 @@
 package io.devTracker.codeTracker.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-// import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Collections;
-// import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for caching GitHub API data to reduce API calls and improve performance.
- * Uses Redis for caching and scheduled jobs to refresh data periodically.
+ *
+ * Entries are keyed by a SHA-256 hash of the access token and each expires
+ * github.cache.ttl after it was last fetched or revalidated. Entries that
+ * were read recently are refreshed ahead of expiry in the background with a
+ * conditional request on their ETag, so unchanged data costs a 304, which
+ * GitHub does not count against the rate limit. Refreshes for a token are
+ * paused while its X-RateLimit-Remaining is low, until the window resets.
  */
 @Service
 public class GitHubCacheService {
 
     private static final Logger logger = LoggerFactory.getLogger(GitHubCacheService.class);
-    
+
+    /**
+     * A cached user info response. The token is kept so the entry can be
+     * revalidated in the background.
+     */
+    private static final class Entry {
+        final String accessToken;
+        final Map<String, Object> userInfo;
+        final String etag;
+        final long expiresAt;
+        final Integer rateLimitRemaining;
+        final Long rateLimitReset;
+        volatile long lastReadAt;
+
+        Entry(String accessToken, Map<String, Object> userInfo, String etag, long expiresAt,
+              Integer rateLimitRemaining, Long rateLimitReset, long lastReadAt) {
+            this.accessToken = accessToken;
+            this.userInfo = userInfo;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+            this.rateLimitRemaining = rateLimitRemaining;
+            this.rateLimitReset = rateLimitReset;
+            this.lastReadAt = lastReadAt;
+        }
+    }
+
     @Autowired
     private GitHubService gitHubService;
-    
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${github.cache.enabled:true}")
     private boolean cacheEnabled;
-    
+
+    @Value("${github.cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${github.cache.refresh-ahead:2m}")
+    private Duration refreshAhead;
+
+    @Value("${github.cache.max-size:1000}")
+    private long maxSize;
+
+    @Value("${github.cache.min-rate-limit-remaining:100}")
+    private int minRateLimitRemaining;
+
+    private Cache<String, Entry> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return remaining(entry);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return remaining(entry);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "github");
+    }
+
     /**
      * Retrieves user information from GitHub API with caching.
      * If data is in cache, returns cached data; otherwise, fetches from GitHub API.
+     * Failed fetches are not cached.
      *
      * @param accessToken GitHub access token
      * @return Map containing user information
      */
-    @Cacheable(value = "github", key = "'user_' + #accessToken.substring(0, 10)", 
-               condition = "#root.target.isCacheEnabled()")
     public Map<String, Object> getCachedUserInfo(String accessToken) {
-        try {
+        if (!cacheEnabled) {
+            return fetchUncached(accessToken);
+        }
+        String key = tokenHash(accessToken);
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
             logger.info("Cache miss for GitHub user info - fetching from API");
-            return gitHubService.getUserInfo(accessToken);
-        } catch (Exception e) {
-            logger.error("Error fetching GitHub user info: {}", e.getMessage());
-            return Collections.emptyMap();
+            try {
+                entry = cache.get(key, k -> toEntry(accessToken, gitHubService.fetchUserInfo(accessToken, null), null));
+            } catch (RestClientException e) {
+                logger.error("Error fetching GitHub user info: {}", e.getMessage());
+                return Collections.emptyMap();
+            }
         }
+        entry.lastReadAt = System.currentTimeMillis();
+        return entry.userInfo;
     }
-    
+
     /**
-     * Scheduled job to refresh GitHub data in cache.
-     * Runs every 10 minutes to ensure cache data is relatively fresh.
+     * Revalidates entries that are close to expiry and were read within the
+     * last TTL; entries nobody reads are left to expire.
      */
-    @Scheduled(fixedRateString = "${github.cache.refresh-rate:600000}")
-    @CacheEvict(value = "github", allEntries = true)
+    @Scheduled(fixedDelayString = "${github.cache.refresh-rate:60000}")
     public void refreshGitHubCache() {
         if (!cacheEnabled) {
             return;
         }
-        
-        logger.info("Refreshing GitHub cache data");
-        // The actual refresh happens when clients request data after cache eviction
+
+        long now = System.currentTimeMillis();
+        int refreshed = 0;
+        for (Map.Entry<String, Entry> cached : cache.asMap().entrySet()) {
+            Entry entry = cached.getValue();
+            if (entry.expiresAt - now > refreshAhead.toMillis() || now - entry.lastReadAt > ttl.toMillis()) {
+                continue;
+            }
+            if (isRateLimited(entry, now)) {
+                meterRegistry.counter("github.cache.refreshes", "result", "rate_limited").increment();
+                continue;
+            }
+            refresh(cached.getKey(), entry);
+            refreshed++;
+        }
+        if (refreshed > 0) {
+            logger.info("Refreshed {} GitHub cache entries ahead of expiry", refreshed);
+        }
     }
-    
+
     /**
      * Manually evict all GitHub cache entries.
      * Useful for admin operations or when data is known to be stale.
      */
-    @CacheEvict(value = "github", allEntries = true)
     public void clearGitHubCache() {
         logger.info("Manually clearing all GitHub cache entries");
+        cache.invalidateAll();
     }
-    
+
     /**
      * Check if caching is enabled for this service.
-     * Used in @Cacheable condition expressions.
      *
      * @return true if caching is enabled, false otherwise
      */
     public boolean isCacheEnabled() {
         return cacheEnabled;
     }
-}
\ No newline at end of file
+
+    private void refresh(String key, Entry entry) {
+        try {
+            GitHubService.UserInfoResponse response = gitHubService.fetchUserInfo(entry.accessToken, entry.etag);
+            cache.asMap().replace(key, entry, toEntry(entry.accessToken, response, entry));
+            meterRegistry.counter("github.cache.refreshes", "result",
+                    response.notModified() ? "not_modified" : "modified").increment();
+        } catch (HttpClientErrorException.Unauthorized e) {
+            // Token revoked or expired; it can no longer be refreshed
+            cache.asMap().remove(key, entry);
+            meterRegistry.counter("github.cache.refreshes", "result", "unauthorized").increment();
+        } catch (RestClientException e) {
+            // Keep serving the cached value until it expires
+            meterRegistry.counter("github.cache.refreshes", "result", "error").increment();
+            logger.warn("Error refreshing GitHub user info: {}", e.getMessage());
+        }
+    }
+
+    private Entry toEntry(String accessToken, GitHubService.UserInfoResponse response, Entry previous) {
+        Map<String, Object> userInfo = response.notModified() && previous != null ? previous.userInfo : response.body();
+        if (userInfo == null) {
+            throw new RestClientException("Empty GitHub user info response");
+        }
+        return new Entry(accessToken, userInfo, response.etag(), System.currentTimeMillis() + ttl.toMillis(),
+                response.rateLimitRemaining(), response.rateLimitReset(),
+                previous != null ? previous.lastReadAt : System.currentTimeMillis());
+    }
+
+    private boolean isRateLimited(Entry entry, long now) {
+        return entry.rateLimitRemaining != null && entry.rateLimitRemaining < minRateLimitRemaining
+                && (entry.rateLimitReset == null || now < TimeUnit.SECONDS.toMillis(entry.rateLimitReset));
+    }
+
+    private Map<String, Object> fetchUncached(String accessToken) {
+        try {
+            return gitHubService.getUserInfo(accessToken);
+        } catch (Exception e) {
+            logger.error("Error fetching GitHub user info: {}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private static long remaining(Entry entry) {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entry.expiresAt - System.currentTimeMillis()));
+    }
+
+    private static String tokenHash(String accessToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,4 +1,6 @@
 package io.devTracker.codeTracker.Service;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -6,6 +8,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class GitHubService {
@@ -16,12 +19,18 @@ public class GitHubService {
     @Value("${spring.security.oauth2.client.registration.github.client-secret}")
     private String clientSecret;
 
-    private final RestTemplate restTemplate=new RestTemplate();
+    @Autowired
+    @Qualifier("githubRestTemplate")
+    private RestTemplate restTemplate;
+
+    @Autowired
+    @Qualifier("githubApiRestTemplate")
+    private RestTemplate apiRestTemplate;
 
 
     // Exchange authorization code for access token
     public String exchangeCodeForToken(String code) throws Exception {
-        String tokenUrl = "https://github.com/login/oauth/access_token";
+        String tokenUrl = "/login/oauth/access_token";
         
         // Set headers
         HttpHeaders headers = new HttpHeaders();
@@ -58,31 +67,80 @@ public class GitHubService {
     }
 
 
+    /**
+     * Response of a (conditional) user info request, with GitHub's rate-limit headers.
+     *
+     * @param body the user info, or null when notModified
+     * @param rateLimitRemaining requests left in the current window, or null if not reported or malformed
+     * @param rateLimitReset epoch second at which the window resets, or null if not reported or malformed
+     */
+    public record UserInfoResponse(Map<String, Object> body, String etag, boolean notModified,
+                                   Integer rateLimitRemaining, Long rateLimitReset) {}
+
+
     // Get user info from GitHub
     public Map<String, Object> getUserInfo(String accessToken) throws Exception {
-        String userUrl = "https://api.github.com/user";
+        UserInfoResponse response = fetchUserInfo(accessToken, null);
+        if (response.body() != null) {
+            return response.body();
+        }
+        
+        throw new Exception("Failed to get user info from GitHub");
+    }
+
+
+    /**
+     * Fetches user info, sending If-None-Match when an ETag is given. GitHub
+     * answers an unchanged resource with 304, which does not count against
+     * the rate limit.
+     */
+    public UserInfoResponse fetchUserInfo(String accessToken, String etag) {
+        String userUrl = "/user";
         
         // Set headers
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Bearer " + accessToken);
         headers.set("Accept", "application/vnd.github.v3+json");
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
         
         // Set request entity
         HttpEntity<String> request = new HttpEntity<>(headers);
         
         // Get user info
-        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+        ResponseEntity<Map<String, Object>> response = apiRestTemplate.exchange(
             userUrl, 
             HttpMethod.GET, 
             request, 
             new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
         );
         
-        // Check response status
-        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-            return response.getBody();
+        HttpHeaders responseHeaders = response.getHeaders();
+        String remaining = responseHeaders.getFirst("X-RateLimit-Remaining");
+        String reset = responseHeaders.getFirst("X-RateLimit-Reset");
+        boolean notModified = response.getStatusCode() == HttpStatus.NOT_MODIFIED;
+        return new UserInfoResponse(
+            notModified ? null : response.getBody(),
+            responseHeaders.getETag() != null ? responseHeaders.getETag() : etag,
+            notModified,
+            parseHeader(remaining, Integer::valueOf),
+            parseHeader(reset, Long::valueOf)
+        );
+    }
+
+    /**
+     * Rate limit headers only tune how often we call GitHub, so a malformed
+     * one is treated as absent rather than failing the login.
+     */
+    private static <T> T parseHeader(String value, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
         }
-        
-        throw new Exception("Failed to get user info from GitHub");
     }
 }
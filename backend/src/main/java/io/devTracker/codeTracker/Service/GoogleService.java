@@ -1,5 +1,7 @@
 package io.devTracker.codeTracker.Service;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -16,10 +18,16 @@ public class GoogleService {
     @Value("${spring.security.oauth2.client.registration.google.client-secret}")
     private String clientSecret;
 
-    private final RestTemplate restTemplate=new RestTemplate();
+    @Autowired
+    @Qualifier("googleOAuthRestTemplate")
+    private RestTemplate restTemplate;
+
+    @Autowired
+    @Qualifier("googleApiRestTemplate")
+    private RestTemplate apiRestTemplate;
 
 public String exchangeCodeForToken(String code) throws Exception {
-    String tokenUrl = "https://oauth2.googleapis.com/token"; // Google OAuth2 token endpoint
+    String tokenUrl = "/token"; // Google OAuth2 token endpoint
 
     HttpHeaders headers = new HttpHeaders(); // Create HTTP headers
     headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED); // Set content type to URL-encoded form data
@@ -50,14 +58,14 @@ public String exchangeCodeForToken(String code) throws Exception {
 
     
     public Map<String, Object> getUserInfo(String accessToken) throws Exception {
-    String userUrl = "https://www.googleapis.com/oauth2/v2/userinfo"; // Google API endpoint for user info
+    String userUrl = "/oauth2/v2/userinfo"; // Google API endpoint for user info
     
     HttpHeaders headers = new HttpHeaders(); // Create HTTP headers
     headers.set("Authorization", "Bearer " + accessToken); // Set the Authorization header with the access token
     
     HttpEntity<String> request = new HttpEntity<>(headers); // Create the HTTP request with headers
     
-    ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+    ResponseEntity<Map<String, Object>> response = apiRestTemplate.exchange(
         userUrl, 
         HttpMethod.GET, 
         request, 
@@ -1,86 +1,33 @@
 package io.devTracker.codeTracker.Service;
 
 import io.devTracker.codeTracker.Dto.OverviewDTO;
-import io.devTracker.codeTracker.Model.Activity;
-import io.devTracker.codeTracker.Model.Project;
 import io.devTracker.codeTracker.Model.User;
-import io.devTracker.codeTracker.Repository.ActivityRepository;
-import io.devTracker.codeTracker.Repository.ProjectRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.Comparator;
-import java.util.Date;
-import java.util.List;
 
 @Service
 public class OverviewService {
 
     @Autowired
-    private ProjectRepository projectRepository;
-
-    @Autowired
-    private ActivityRepository activityRepository;
+    private UserStatsService userStatsService;
+
+    /**
+    * Cache key for a user's overview. The week and month counts are windows
+    * of whole days ending today, so the key carries the day and an overview
+    * computed yesterday is never served (or tagged) as today's.
+    */
+    public static String cacheKey(String userId) {
+        return userId + "-" + LocalDate.now().toEpochDay();
+    }
 
-    @Cacheable(value = "overview", key = "#user.id")
+    @Cacheable(value = "overview", key = "#root.target.cacheKey(#user.id)", sync = true)
     public OverviewDTO.Summary getOverview(User user) {
         System.out.println("Calculating overview for user: " + user.getId());
-        
-        // Fetch all projects associated with the user
-        List<Project> projects = projectRepository.findByUserId(user.getId());
-        System.out.println("Found " + projects.size() + " projects");
-
-        // Fetch all activities associated with the user
-        List<Activity> activities = activityRepository.findByUserId(user.getId());
-        System.out.println("Found " + activities.size() + " activities");
-
-        // Count total number of projects and activities
-        long totalProjects = projects.size();
-        long totalActivities = activities.size();
-
-        // Find the most recently created project
-        Project recentProject = projects.stream()
-                .max(Comparator.comparing(Project::getCreatedAt))
-                .orElse(null);
-
-        // Find the most recent activity
-        Activity recentActivity = activities.stream()
-                .max(Comparator.comparing(Activity::getCreatedAt))
-                .orElse(null);
-
-        // Get current date and calculate the start of the last 7 and 30 days
-        LocalDate now = LocalDate.now();
-        Date weekStart = Date.from(now.minusDays(7).atStartOfDay(ZoneId.systemDefault()).toInstant());
-        Date monthStart = Date.from(now.minusDays(30).atStartOfDay(ZoneId.systemDefault()).toInstant());
-
-        // Count activities started in the last week
-        long weekCount = activities.stream()
-                .filter(a -> a.getStartTime().after(weekStart))
-                .count();
-
-        // Count activities started in the last month
-        long monthCount = activities.stream()
-                .filter(a -> a.getStartTime().after(monthStart))
-                .count();
-
-        // Convert recent project to DTO format, if it exists
-        OverviewDTO.RecentItem rp = recentProject == null ? null : new OverviewDTO.RecentItem(
-                recentProject.getId(),
-                recentProject.getName(),
-                recentProject.getCreatedAt().toInstant()
-        );
-
-        // Convert recent activity to DTO format, if it exists
-        OverviewDTO.RecentItem ra = recentActivity == null ? null : new OverviewDTO.RecentItem(
-                recentActivity.getId(),
-                recentActivity.getProjectName(),
-                recentActivity.getCreatedAt().toInstant()
-        );
 
-        // Return a summary DTO containing counts and recent items
-        return new OverviewDTO.Summary(totalProjects, totalActivities, rp, ra, weekCount, monthCount);
+        // Counters are maintained incrementally in user_stats, so this is a single document read
+        return userStatsService.getSummary(user.getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package io.devTracker.codeTracker.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs password hashing and verification on the bounded passwordHashExecutor
+ * instead of the request thread, so a login burst cannot starve other
+ * endpoints of CPU. When the pool and its queue are full, or the work does
+ * not start in time, the call fails fast with {@link BusyException}, which
+ * the auth endpoints answer with 503.
+ *
+ * Metrics: auth.password_hash.queue (time waiting for a worker) and
+ * auth.password_hash.duration (time hashing), both tagged by operation, and
+ * auth.password_hash.rejected.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    /**
+     * Thrown when no worker is available to hash a password.
+     */
+    public static class BusyException extends RuntimeException {
+        public BusyException(String message) {
+            super(message);
+        }
+    }
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private Executor executor;
+
+    @Value("${auth.password-hash.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${auth.password-hash.timeout:5s}")
+    private Duration timeout;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    public PasswordHashingService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.rejected = meterRegistry.counter("auth.password_hash.rejected");
+    }
+
+    public String hash(String rawPassword) {
+        return run("hash", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run("verify", () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * @return true if the hash was made with a different BCrypt cost than the
+     * configured one and should be replaced on the next successful login
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != bcryptStrength;
+    }
+
+    /**
+     * The timeout bounds the wait for a worker only; once hashing has started
+     * it runs to completion, as BCrypt cannot be interrupted anyway.
+     */
+    private <T> T run(String operation, Supplier<T> work) {
+        long submittedAt = System.nanoTime();
+        // Completed by the worker when it picks the work up, cancelled by the caller on timeout
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                if (!started.complete(null)) {
+                    return null;
+                }
+                long startedAt = System.nanoTime();
+                timer("auth.password_hash.queue", operation).record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return work.get();
+                } finally {
+                    timer("auth.password_hash.duration", operation).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException("Password hashing is busy, try again later");
+        }
+
+        try {
+            started.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Fails only if a worker picked the work up in the meantime
+            if (started.cancel(false)) {
+                rejected.increment();
+                throw new BusyException("Password hashing did not start in time, try again later");
+            }
+        } catch (InterruptedException e) {
+            started.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new BusyException("Interrupted waiting for password hashing");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusyException("Interrupted waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Timer timer(String name, String operation) {
+        return Timer.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,107 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Dto.DeviceConfirmResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory registry of device codes waiting for approval on this node.
+ *
+ * Each pending code has a future that completes with the token response when
+ * the device is confirmed, or with null when the code expires. Long-polling
+ * token requests wait on it instead of polling Mongo, and the token is
+ * minted once per code and handed to every later poll.
+ *
+ * The registry is node-local and bounded; codes it does not know (issued
+ * before a restart, on another node, or while it was full) are served from
+ * Mongo as before.
+ */
+@Component
+public class PendingDeviceRegistry {
+
+    private record Pending(long expiresAt, CompletableFuture<DeviceConfirmResponse> approval) {}
+
+    @Value("${app.device-auth.max-pending:10000}")
+    private int maxPending;
+
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Starts tracking a new device code. Ignored when the registry is full.
+     */
+    public void register(String deviceCode, Date expiresAt) {
+        if (pending.size() < maxPending) {
+            pending.putIfAbsent(deviceCode, new Pending(expiresAt.getTime(), new CompletableFuture<>()));
+        }
+    }
+
+    /**
+     * @return a future completing with the token response on approval (or
+     * null on expiry), or null if this node does not track the code
+     */
+    public CompletableFuture<DeviceConfirmResponse> awaitApproval(String deviceCode) {
+        Pending entry = pending.get(deviceCode);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            expire(deviceCode, entry);
+        }
+        return entry.approval();
+    }
+
+    /**
+     * Records the token issued on confirmation and wakes all waiting polls.
+     */
+    public void approve(String deviceCode, Date expiresAt, DeviceConfirmResponse response) {
+        Pending entry = pending.computeIfAbsent(deviceCode,
+                code -> new Pending(expiresAt.getTime(), new CompletableFuture<>()));
+        entry.approval().complete(response);
+    }
+
+    /**
+     * Returns the token response already issued for an approved code, minting
+     * and remembering it on first use.
+     */
+    public DeviceConfirmResponse approvedResponse(String deviceCode, Date expiresAt, Supplier<DeviceConfirmResponse> mint) {
+        Pending entry = pending.get(deviceCode);
+        DeviceConfirmResponse issued = entry != null ? entry.approval().getNow(null) : null;
+        if (issued != null) {
+            return issued;
+        }
+        DeviceConfirmResponse response = mint.get();
+        if (response == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return response;
+        }
+        entry = pending.computeIfAbsent(deviceCode, code -> new Pending(expiresAt.getTime(), new CompletableFuture<>()));
+        entry.approval().complete(response);
+        // A concurrent poll may have minted first; everyone gets the same token
+        issued = entry.approval().getNow(null);
+        return issued != null ? issued : response;
+    }
+
+    /**
+     * Drops expired codes and releases their waiting polls.
+     */
+    @Scheduled(fixedDelayString = "${app.device-auth.registry-sweep-interval:30000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        pending.forEach((deviceCode, entry) -> {
+            if (entry.expiresAt() <= now) {
+                expire(deviceCode, entry);
+            }
+        });
+    }
+
+    private void expire(String deviceCode, Pending entry) {
+        entry.approval().complete(null);
+        pending.remove(deviceCode, entry);
+    }
+}
@@ -4,7 +4,6 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -18,6 +17,12 @@ public class ProjectService {
     @Autowired
     private ProjectRepository projectRepository;
 
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
     // Helper class to provide context about project creation
     public static class ProjectCreationResult {
         private final Project project;
@@ -44,7 +49,6 @@ public class ProjectService {
      * @param userId the ID of the user creating the project
      * @return ProjectCreationResult containing the project and whether it was newly created
      */
-    @CacheEvict(value={"projects","overview"},key="#userId")
     public ProjectCreationResult findOrCreateProject(String projectName, String userId) {
         Optional<Project> existingProject = projectRepository.findByNameAndUserId(projectName, userId);
         
@@ -56,6 +60,8 @@ public class ProjectService {
                 .userId(userId)
                 .build();
             Project savedProject = projectRepository.save(newProject);
+            userStatsService.recordProjectCreated(savedProject);
+            cacheInvalidationService.projectChanged(savedProject);
             return new ProjectCreationResult(savedProject, true); // Is new
         }
     }
@@ -81,7 +87,7 @@ public class ProjectService {
      * @return an Optional containing the Project entity if found, or empty if not found or access is denied
      */
 
-    @Cacheable(value = "projects", key = "#projectId + '-' + #user.id")
+    @Cacheable(value = "projects", key = "#user.id + '-' + #projectId")
     public Optional<Project> getProjectById(String projectId, User user) {
         return projectRepository.findById(projectId)
                 .filter(project -> project.getUserId().equals(user.getId()));
@@ -97,7 +103,6 @@ public class ProjectService {
      * @return an Optional containing the updated Project entity if found, or empty if not found or access is denied
      */
 
-    @CacheEvict(value = {"projects", "overview"}, key = "#user.id")
     public Optional<Project> updateProject(String projectId, String name, User user) {
         return projectRepository.findById(projectId)
                 .map(project -> {
@@ -105,7 +110,10 @@ public class ProjectService {
                         throw new SecurityException("Access denied");
                     }
                     project.setName(name);
-                    return projectRepository.save(project);
+                    Project savedProject = projectRepository.save(project);
+                    userStatsService.recordProjectRenamed(savedProject);
+                    cacheInvalidationService.projectChanged(savedProject);
+                    return savedProject;
                 });
     }
 
@@ -123,6 +131,8 @@ public class ProjectService {
                         throw new SecurityException("Access denied");
                     }
                     projectRepository.delete(project);
+                    userStatsService.recordProjectDeleted(project);
+                    cacheInvalidationService.projectChanged(project);
                     return true;
                 }).orElse(false);
     }
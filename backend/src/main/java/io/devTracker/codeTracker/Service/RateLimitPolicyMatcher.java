@@ -0,0 +1,179 @@
+package io.devTracker.codeTracker.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Path-template trie mapping METHOD + request path to a rate-limit policy.
+ *
+ * Patterns are split into segments once, when the policies are loaded. A
+ * segment is a literal, a single-segment wildcard ({var} or *), or a
+ * trailing ** matching the rest of the path, including nothing. Empty
+ * segments are ignored in patterns and paths alike, so a trailing slash or
+ * "//" matches like a single slash. Matching walks the request path in
+ * place, one segment per trie level, preferring literal over wildcard over
+ * ** and backtracking when a branch dead-ends; it does not allocate.
+ * Immutable once built.
+ */
+final class RateLimitPolicyMatcher {
+
+    // Method slots 0-6 (see methodIndex), then one for policies without methods
+    private static final int ANY = 7;
+    private static final int OTHER = -1;
+
+    private static final class Node {
+        String[] literals = new String[0];
+        Node[] literalChildren = new Node[0];
+        Node wildcard;
+        // Indexed by method, with ANY last; null when no policy ends here
+        RateLimitService.Policy[] terminal;
+        RateLimitService.Policy[] catchAll;
+
+        Node literal(String segment) {
+            for (int i = 0; i < literals.length; i++) {
+                if (literals[i].equals(segment)) {
+                    return literalChildren[i];
+                }
+            }
+            literals = Arrays.copyOf(literals, literals.length + 1);
+            literalChildren = Arrays.copyOf(literalChildren, literalChildren.length + 1);
+            literals[literals.length - 1] = segment;
+            return literalChildren[literalChildren.length - 1] = new Node();
+        }
+    }
+
+    private final Node root = new Node();
+    private final RateLimitService.Policy defaultPolicy;
+
+    /**
+     * @param policies in priority order; for the same pattern and method the first wins
+     */
+    RateLimitPolicyMatcher(List<RateLimitService.Policy> policies, RateLimitService.Policy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+        for (RateLimitService.Policy policy : policies) {
+            for (String path : policy.paths()) {
+                add(path, policy);
+            }
+        }
+    }
+
+    private void add(String pattern, RateLimitService.Policy policy) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+
+        Node node = root;
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (segment.equals("**")) {
+                if (i != segments.size() - 1) {
+                    throw new IllegalArgumentException("** must be the last segment: " + pattern);
+                }
+                node.catchAll = put(node.catchAll, policy);
+                return;
+            }
+            if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node();
+                }
+                node = node.wildcard;
+            } else {
+                node = node.literal(segment);
+            }
+        }
+        node.terminal = put(node.terminal, policy);
+    }
+
+    private static RateLimitService.Policy[] put(RateLimitService.Policy[] slots, RateLimitService.Policy policy) {
+        if (slots == null) {
+            slots = new RateLimitService.Policy[ANY + 1];
+        }
+        if (policy.methods().isEmpty()) {
+            if (slots[ANY] == null) {
+                slots[ANY] = policy;
+            }
+        } else {
+            for (String method : policy.methods()) {
+                int index = methodIndex(method);
+                if (index == OTHER) {
+                    throw new IllegalArgumentException("Unsupported method in policy " + policy.name() + ": " + method);
+                }
+                if (slots[index] == null) {
+                    slots[index] = policy;
+                }
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * @param path request path starting with /, without query string
+     * @return the most specific policy, or the default policy
+     */
+    RateLimitService.Policy match(String method, String path) {
+        RateLimitService.Policy policy = match(root, methodIndex(method), path, 1);
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    private static RateLimitService.Policy match(Node node, int method, String path, int start) {
+        if (start >= path.length()) {
+            RateLimitService.Policy policy = pick(node.terminal, method);
+            return policy != null ? policy : pick(node.catchAll, method);
+        }
+
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int length = end - start;
+        if (length == 0) {
+            // Empty segments ("//") are skipped, as they are when patterns are split
+            return match(node, method, path, end + 1);
+        }
+
+        for (int i = 0; i < node.literals.length; i++) {
+            String literal = node.literals[i];
+            if (literal.length() == length && path.regionMatches(start, literal, 0, length)) {
+                RateLimitService.Policy policy = match(node.literalChildren[i], method, path, end + 1);
+                if (policy != null) {
+                    return policy;
+                }
+                break;
+            }
+        }
+        if (node.wildcard != null) {
+            RateLimitService.Policy policy = match(node.wildcard, method, path, end + 1);
+            if (policy != null) {
+                return policy;
+            }
+        }
+        return pick(node.catchAll, method);
+    }
+
+    private static RateLimitService.Policy pick(RateLimitService.Policy[] slots, int method) {
+        if (slots == null) {
+            return null;
+        }
+        if (method != OTHER && slots[method] != null) {
+            return slots[method];
+        }
+        return slots[ANY];
+    }
+
+    private static int methodIndex(String method) {
+        return switch (method) {
+            case "GET" -> 0;
+            case "HEAD" -> 1;
+            case "POST" -> 2;
+            case "PUT" -> 3;
+            case "PATCH" -> 4;
+            case "DELETE" -> 5;
+            case "OPTIONS" -> 6;
+            default -> OTHER;
+        };
+    }
+}
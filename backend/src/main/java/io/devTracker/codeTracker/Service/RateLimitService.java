@@ -1,167 +1,269 @@
 package io.devTracker.codeTracker.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
 
+/**
+ * Rate limits for the API, configured as policies in a YAML file
+ * (rate-limit.policy-file, classpath:rate-limits.yml by default).
+ *
+ * Policies are compiled into a {@link RateLimitPolicyMatcher} when loaded,
+ * and each client gets one bucket per policy, shared by all nodes through
+ * {@link RedisRateLimiter} when rate-limit.redis.enabled=true. The file is polled for changes
+ * and reloaded without a restart; an invalid file is logged and the current
+ * policies are kept. Buckets are reset on reload so new limits apply at once.
+ */
 @Service
 public class RateLimitService {
 
-    // Toggle to enable/disable rate limiting via configuration
-    @Value("${rate-limit.enabled:true}")
-    private boolean enabled;
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitService.class);
 
-    // Rate limit configuration values (capacity and refill period) for various API endpoints
+    /**
+     * A named limit: capacity tokens, refilled in full every refill period.
+     * Applies to the given path patterns, for all methods if none are listed.
+     *
+     * The cost of a request is one token by default ("request"). With
+     * "content-length" it is one token per bytes-per-token of body. With
+     * "items" it is charged up front the same way and settled afterwards
+     * against the number of items the ingestion endpoint accepted.
+     */
+    public record Policy(String name, @DefaultValue List<String> methods, @DefaultValue List<String> paths,
+                         @DefaultValue("30") long capacity, @DefaultValue("60s") Duration refillPeriod,
+                         @DefaultValue("request") String cost, @DefaultValue("1024") long bytesPerToken) {
 
-    @Value("${rate-limit.activities.capacity:20}")
-    private int activitiesCapacity;
-    @Value("${rate-limit.activities.refill-period:60}")
-    private int activitiesRefillPeriod;
+        public static final String COST_REQUEST = "request";
+        public static final String COST_CONTENT_LENGTH = "content-length";
+        public static final String COST_ITEMS = "items";
 
-    @Value("${rate-limit.activities-batch.capacity:10}")
-    private int activitiesBatchCapacity;
-    @Value("${rate-limit.activities-batch.refill-period:60}")
-    private int activitiesBatchRefillPeriod;
+        /**
+         * Tokens to take before the request runs. May exceed the capacity, in
+         * which case the request can never pass and is rejected as too large.
+         *
+         * @param contentLength request body length, or -1 if unknown
+         */
+        public long initialCost(long contentLength) {
+            if (COST_REQUEST.equals(cost) || contentLength <= 0) {
+                return 1;
+            }
+            return Math.max(1, (contentLength + bytesPerToken - 1) / bytesPerToken);
+        }
 
-    @Value("${rate-limit.activities-get.capacity:30}")
-    private int activitiesGetCapacity;
-    @Value("${rate-limit.activities-get.refill-period:60}")
-    private int activitiesGetRefillPeriod;
+        public boolean settlesOnItems() {
+            return COST_ITEMS.equals(cost);
+        }
 
-    @Value("${rate-limit.projects-activities.capacity:30}")
-    private int projectsActivitiesCapacity;
-    @Value("${rate-limit.projects-activities.refill-period:60}")
-    private int projectsActivitiesRefillPeriod;
+        Bandwidth bandwidth() {
+            return Bandwidth.classic(capacity, Refill.intervally(capacity, refillPeriod));
+        }
+    }
 
-    @Value("${rate-limit.projects.capacity:60}")
-    private int projectsCapacity;
-    @Value("${rate-limit.projects.refill-period:60}")
-    private int projectsRefillPeriod;
+    /**
+     * Layout of the policy file.
+     */
+    record PolicyFile(@DefaultValue("true") boolean enabled, Policy defaults, @DefaultValue List<Policy> policies) {}
 
-    @Value("${rate-limit.overview.capacity:60}")
-    private int overviewCapacity;
-    @Value("${rate-limit.overview.refill-period:60}")
-    private int overviewRefillPeriod;
+    // Master switch; when off the policy file cannot turn rate limiting on
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabledByProperty;
 
-    @Value("${rate-limit.auth-device.capacity:5}")
-    private int authDeviceCapacity;
-    @Value("${rate-limit.auth-device.refill-period:60}")
-    private int authDeviceRefillPeriod;
+    @Value("${rate-limit.policy-file:classpath:rate-limits.yml}")
+    private Resource policyFile;
 
-    @Value("${rate-limit.auth-device-confirm.capacity:5}")
-    private int authDeviceConfirmCapacity;
-    @Value("${rate-limit.auth-device-confirm.refill-period:60}")
-    private int authDeviceConfirmRefillPeriod;
+    // Buckets idle for longer than the longest refill period are full again, so dropping them is lossless
+    @Value("${rate-limit.buckets.expire-after-access:10m}")
+    private Duration bucketExpireAfterAccess;
 
-    // A concurrent map to store and retrieve rate limit buckets for each (user + endpoint) combination
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    @Value("${rate-limit.buckets.max-size:100000}")
+    private long bucketMaxSize;
 
-    /**
-     * Resolves (or creates) a rate limit bucket for a user and a specific endpoint.
-     * Each user-endpoint pair has its own rate limiting bucket.
-     *
-     * @param key      Unique user identifier (e.g., user ID or IP address)
-     * @param endpoint API endpoint being accessed
-     * @return Bucket that enforces the rate limit
-     */
-    public Bucket resolveBucket(String key, String endpoint) {
-        if (!enabled) {
-            // If rate limiting is disabled, return an effectively unlimited bucket
-            return Bucket.builder()
-                .addLimit(Bandwidth.classic(Long.MAX_VALUE, Refill.greedy(Long.MAX_VALUE, Duration.ofNanos(1))))
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Present when rate-limit.redis.enabled=true
+    @Autowired(required = false)
+    private RedisRateLimiter redisRateLimiter;
+
+    // How long to use local buckets after Redis fails, before trying it again
+    @Value("${rate-limit.redis.retry-interval:10s}")
+    private Duration redisRetryInterval;
+
+    private volatile long redisRetryAt;
+
+    // Rate limit buckets for each (client + policy) combination; bounded and expiring
+    private Cache<String, Bucket> buckets;
+
+    private volatile boolean enabled;
+    private volatile RateLimitPolicyMatcher matcher;
+    private volatile long policyFileModified;
+
+    @PostConstruct
+    public void init() {
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(bucketExpireAfterAccess)
+                .maximumSize(bucketMaxSize)
+                .recordStats()
                 .build();
+        // Exposes the live bucket count (cache.size) and evictions for the rateLimitBuckets cache
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+
+        try {
+            loadPolicies();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Invalid rate-limit policy file " + policyFile, e);
         }
+    }
 
-        // Retrieve existing bucket or create a new one for the user-endpoint pair
-        return buckets.computeIfAbsent(key + "-" + endpoint, k -> createNewBucket(endpoint));
+    /**
+     * @return false if rate limiting is switched off, in which case callers
+     * should skip it entirely
+     */
+    public boolean isEnabled() {
+        return enabled;
     }
 
+    /**
+     * Finds the policy for a request without allocating.
+     *
+     * @param method HTTP method
+     * @param path   request path, starting with /
+     */
+    public Policy resolvePolicy(String method, String path) {
+        return matcher.match(method, path);
+    }
 
+    /**
+     * Takes tokens from a client's bucket for a policy: the cluster-wide one in
+     * Redis when enabled, otherwise (or while Redis is unreachable) the one on
+     * this node.
+     *
+     * @param key    Unique client identifier (e.g., user ID or IP address)
+     * @param policy Policy from {@link #resolvePolicy}
+     * @param tokens Number of tokens to take
+     * @return whether the tokens were taken, with the remaining tokens and wait time
+     */
+    public ConsumptionProbe tryConsume(String key, Policy policy, long tokens) {
+        String bucketKey = key + "-" + policy.name();
+        if (redisRateLimiter != null && System.currentTimeMillis() >= redisRetryAt) {
+            try {
+                return redisRateLimiter.tryConsume(bucketKey, policy, tokens);
+            } catch (DataAccessException e) {
+                // Local limits are per node, but better than failing every request
+                redisRetryAt = System.currentTimeMillis() + redisRetryInterval.toMillis();
+                meterRegistry.counter("rate_limit.redis.fallbacks").increment();
+                logger.warn("Redis rate limiting unavailable, using local buckets for {}: {}",
+                        redisRetryInterval, e.getMessage());
+            }
+        }
+        return resolveBucket(bucketKey, policy).tryConsumeAndReturnRemaining(tokens);
+    }
 
     /**
-     * Creates a new rate limiting bucket based on the endpoint being accessed.
-     * Each endpoint has specific rate limit settings.
+     * Corrects a charge once the real cost of a request is known: refunds
+     * tokens taken for work that was not done, or takes the shortfall
+     * regardless of the limit, leaving the bucket in debt for as many refill
+     * periods as it takes to pay it back.
      *
-     * @param endpoint API endpoint string
-     * @return Configured Bucket instance
+     * @param charged tokens taken by {@link #tryConsume}
+     * @param actual  what the request turned out to cost
      */
+    public void settle(String key, Policy policy, long charged, long actual) {
+        long delta = Math.max(-charged, actual - charged);
+        if (delta == 0) {
+            return;
+        }
+        meterRegistry.counter("rate_limit.settled_tokens", "policy", policy.name(),
+                "direction", delta < 0 ? "refunded" : "charged").increment(Math.abs(delta));
 
-    private Bucket createNewBucket(String endpoint) {
-        Bandwidth limit;
-
-        // Define rate limits based on endpoint pattern matching
-
-        if (endpoint.startsWith("/api/activity") && endpoint.endsWith("/batch")) {
-            // Batch activity posting
-            limit = Bandwidth.classic(
-                activitiesBatchCapacity,
-                Refill.intervally(activitiesBatchCapacity, Duration.ofSeconds(activitiesBatchRefillPeriod))
-            );
-
-        } else if (endpoint.startsWith("/api/activity") && endpoint.contains("POST")) {
-            // Individual activity posting
-            limit = Bandwidth.classic(
-                activitiesCapacity,
-                Refill.intervally(activitiesCapacity, Duration.ofSeconds(activitiesRefillPeriod))
-            );
-
-        } else if (endpoint.startsWith("/api/activity") && endpoint.contains("GET")) {
-            // Fetching activities
-            limit = Bandwidth.classic(
-                activitiesGetCapacity,
-                Refill.intervally(activitiesGetCapacity, Duration.ofSeconds(activitiesGetRefillPeriod))
-            );
-
-        } else if (endpoint.startsWith("/api/projects") && endpoint.contains("activities")) {
-            // Accessing project-related activities
-            limit = Bandwidth.classic(
-                projectsActivitiesCapacity,
-                Refill.intervally(projectsActivitiesCapacity, Duration.ofSeconds(projectsActivitiesRefillPeriod))
-            );
-
-        } else if (endpoint.startsWith("/api/projects")) {
-            // General project operations
-            limit = Bandwidth.classic(
-                projectsCapacity,
-                Refill.intervally(projectsCapacity, Duration.ofSeconds(projectsRefillPeriod))
-            );
-
-        } else if (endpoint.startsWith("/api/overview")) {
-            // Dashboard or overview-related data
-            limit = Bandwidth.classic(
-                overviewCapacity,
-                Refill.intervally(overviewCapacity, Duration.ofSeconds(overviewRefillPeriod))
-            );
-
-        } else if (endpoint.startsWith("/api/auth/device") && !endpoint.contains("confirm")) {
-            // Authentication using a device
-            limit = Bandwidth.classic(
-                authDeviceCapacity,
-                Refill.intervally(authDeviceCapacity, Duration.ofSeconds(authDeviceRefillPeriod))
-            );
-
-        } else if (endpoint.startsWith("/api/auth/device/confirm")) {
-            // Confirming device authentication
-            limit = Bandwidth.classic(
-                authDeviceConfirmCapacity,
-                Refill.intervally(authDeviceConfirmCapacity, Duration.ofSeconds(authDeviceConfirmRefillPeriod))
-            );
-            
+        String bucketKey = key + "-" + policy.name();
+        if (redisRateLimiter != null && System.currentTimeMillis() >= redisRetryAt) {
+            try {
+                redisRateLimiter.adjust(bucketKey, policy, delta);
+                return;
+            } catch (DataAccessException e) {
+                redisRetryAt = System.currentTimeMillis() + redisRetryInterval.toMillis();
+                meterRegistry.counter("rate_limit.redis.fallbacks").increment();
+            }
+        }
+        Bucket bucket = resolveBucket(bucketKey, policy);
+        if (delta < 0) {
+            bucket.addTokens(-delta);
         } else {
-            // Default fallback rate limit for unspecified endpoints
-            limit = Bandwidth.classic(
-                30,
-                Refill.intervally(30, Duration.ofSeconds(60))
-            );
+            bucket.consumeIgnoringRateLimits(delta);
+        }
+    }
+
+    private Bucket resolveBucket(String bucketKey, Policy policy) {
+        return buckets.get(bucketKey, k -> Bucket.builder().addLimit(policy.bandwidth()).build());
+    }
+
+    /**
+     * Reloads the policy file when its modification time changes.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.policy-reload-interval:10000}")
+    public void reloadPolicies() {
+        try {
+            if (policyFile.lastModified() == policyFileModified) {
+                return;
+            }
+            loadPolicies();
+            logger.info("Reloaded rate-limit policies from {}", policyFile);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Keeping current rate-limit policies, could not load {}: {}", policyFile, e.getMessage());
+        }
+    }
+
+    private synchronized void loadPolicies() throws IOException {
+        long modified = policyFile.lastModified();
+        PolicyFile file = new Binder(ConfigurationPropertySources.from(
+                new YamlPropertySourceLoader().load("rate-limits", policyFile)))
+                .bind("", Bindable.of(PolicyFile.class))
+                .orElseThrow(() -> new IllegalArgumentException("Empty rate-limit policy file"));
+
+        List<Policy> policies = file.policies();
+        Policy defaults = file.defaults() != null
+                ? file.defaults()
+                : new Policy("default", List.of(), List.of(), 30, Duration.ofSeconds(60), Policy.COST_REQUEST, 1024);
+        for (Policy policy : policies) {
+            if (policy.name() == null || policy.name().equals("default")) {
+                throw new IllegalArgumentException("Each policy needs a name other than default");
+            }
+            if (!List.of(Policy.COST_REQUEST, Policy.COST_CONTENT_LENGTH, Policy.COST_ITEMS).contains(policy.cost())
+                    || policy.bytesPerToken() <= 0) {
+                throw new IllegalArgumentException("Invalid cost for policy " + policy.name());
+            }
         }
 
-        // Build and return the rate limit bucket
-        return Bucket.builder().addLimit(limit).build();
+        // Compile first so a bad file leaves the current policies in place
+        RateLimitPolicyMatcher compiled = new RateLimitPolicyMatcher(policies,
+                new Policy("default", List.of(), List.of(), defaults.capacity(), defaults.refillPeriod(),
+                        Policy.COST_REQUEST, defaults.bytesPerToken()));
+        this.matcher = compiled;
+        this.enabled = enabledByProperty && file.enabled();
+        this.policyFileModified = modified;
+        buckets.invalidateAll();
     }
 }
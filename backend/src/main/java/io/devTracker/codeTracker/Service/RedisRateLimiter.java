@@ -0,0 +1,279 @@
+package io.devTracker.codeTracker.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide token buckets in Redis, so limits hold across replicas.
+ *
+ * Each (client, policy) bucket is a Redis hash updated by a Lua script,
+ * which refills and takes tokens atomically using the Redis server clock.
+ * To keep busy clients' checks off the network, a node takes a lease of
+ * several tokens at a time and hands them out locally until they run out or
+ * the lease expires (rate-limit.redis.lease-ttl). A lease starts at one
+ * token, doubles each time a node uses one up before it expires, up to
+ * rate-limit.redis.lease-fraction of the capacity, and halves when one
+ * expires with tokens left. Tokens left in an expired lease go back to
+ * Redis, unless the bucket has refilled since, when they would have lapsed
+ * anyway. Leases never admit more than the bucket holds; a client spread
+ * over several nodes may briefly find tokens held by another node's lease,
+ * until that lease expires and returns them.
+ *
+ * Uses the standard spring.data.redis.* connection, so a local Redis works
+ * for development and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.redis.enabled", havingValue = "true")
+public class RedisRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    // KEYS[1] bucket; ARGV capacity, refill period (ms), tokens wanted, tokens needed.
+    // Grants nothing unless at least the needed tokens are there, so a request
+    // that cannot pass does not drain the bucket into a lease.
+    // Returns tokens granted, tokens left, ms until the next refill, time of the last refill.
+    private static final RedisScript<List> TAKE_SCRIPT = RedisScript.of("""
+            local capacity = tonumber(ARGV[1])
+            local period = tonumber(ARGV[2])
+            local wanted = tonumber(ARGV[3])
+            local needed = tonumber(ARGV[4])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'refilled')
+            local tokens = tonumber(state[1])
+            local refilled = tonumber(state[2])
+            if tokens == nil or refilled == nil then
+                tokens = capacity
+                refilled = now
+            end
+            local periods = math.floor((now - refilled) / period)
+            if periods > 0 then
+                tokens = tokens + periods * capacity
+                refilled = refilled + periods * period
+            end
+            -- The capacity may have been lowered since the bucket was written
+            tokens = math.min(tokens, capacity)
+            local granted = 0
+            if tokens >= needed then
+                granted = math.min(tokens, wanted)
+            end
+            tokens = tokens - granted
+            redis.call('HSET', KEYS[1], 'tokens', tokens, 'refilled', refilled)
+            -- After a full period the bucket is full again, same as a missing key;
+            -- a debt keeps it until the refills have paid it off
+            local ttl = period
+            if tokens < 0 then
+                ttl = (math.ceil(-tokens / capacity) + 1) * period
+            end
+            redis.call('PEXPIRE', KEYS[1], ttl)
+            return {granted, tokens, refilled + period - now, refilled}
+            """, List.class);
+
+    // KEYS[1] bucket; ARGV capacity, unused leased tokens, time of the refill they were taken after.
+    // Adds them back only if the bucket has not refilled since; returns the tokens
+    // left, or -1 if they lapsed.
+    private static final RedisScript<Long> RETURN_SCRIPT = RedisScript.of("""
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'refilled')
+            if tonumber(state[2]) ~= tonumber(ARGV[3]) then
+                return -1
+            end
+            local tokens = math.min(tonumber(ARGV[1]), tonumber(state[1]) + tonumber(ARGV[2]))
+            redis.call('HSET', KEYS[1], 'tokens', tokens)
+            return tokens
+            """, Long.class);
+
+    // KEYS[1] bucket; ARGV capacity, refill period (ms), tokens to take (negative to give back).
+    // Taking may leave the bucket in debt, which outlives the usual expiry
+    // just as in TAKE_SCRIPT; a missing bucket is full.
+    private static final RedisScript<Long> ADJUST_SCRIPT = RedisScript.of("""
+            local capacity = tonumber(ARGV[1])
+            local period = tonumber(ARGV[2])
+            local delta = tonumber(ARGV[3])
+            local tokens = tonumber(redis.call('HGET', KEYS[1], 'tokens'))
+            if tokens == nil then
+                local time = redis.call('TIME')
+                local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+                tokens = math.min(capacity, capacity - delta)
+                redis.call('HSET', KEYS[1], 'tokens', tokens, 'refilled', now)
+                redis.call('PEXPIRE', KEYS[1], period)
+            else
+                tokens = math.min(capacity, tokens - delta)
+                redis.call('HSET', KEYS[1], 'tokens', tokens)
+            end
+            if tokens < 0 then
+                redis.call('PEXPIRE', KEYS[1], (math.ceil(-tokens / capacity) + 1) * period)
+            end
+            return tokens
+            """, Long.class);
+
+    /**
+     * Tokens taken from Redis and not yet handed out on this node.
+     */
+    private static final class Lease {
+        long tokens;
+        // Tokens to take next time; see the class comment
+        long size = 1;
+        long capacity;
+        // Redis refill time the leased tokens were taken after
+        long refilled;
+        long remoteRemaining;
+        long expiresAt;
+        long refillAt;
+        // Redis had no tokens left; nothing to take before this time
+        long emptyUntil;
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final double leaseFraction;
+    private final Duration leaseTtl;
+    private final Cache<String, Lease> leases;
+
+    public RedisRateLimiter(RedisConnectionFactory connectionFactory, MeterRegistry meterRegistry,
+                            @Value("${rate-limit.redis.lease-fraction:0.1}") double leaseFraction,
+                            @Value("${rate-limit.redis.lease-ttl:1s}") Duration leaseTtl,
+                            @Value("${rate-limit.buckets.expire-after-access:10m}") Duration expireAfterAccess,
+                            @Value("${rate-limit.buckets.max-size:100000}") long maxLeases) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+        this.leaseFraction = leaseFraction;
+        this.leaseTtl = leaseTtl;
+        this.leases = Caffeine.newBuilder()
+                // Outlives the lease itself, which also remembers when Redis was empty
+                .expireAfterAccess(expireAfterAccess)
+                .maximumSize(maxLeases)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, leases, "rateLimitLeases");
+    }
+
+    /**
+     * Takes tokens from the cluster-wide bucket, from the local lease when possible.
+     *
+     * @throws org.springframework.dao.DataAccessException if Redis is unavailable
+     */
+    public ConsumptionProbe tryConsume(String key, RateLimitService.Policy policy, long tokens) {
+        Lease lease = leases.get(key, k -> new Lease());
+        synchronized (lease) {
+            long now = System.currentTimeMillis();
+            expire(key, lease, now);
+            if (lease.tokens < tokens && now >= lease.emptyUntil) {
+                long maxSize = Math.max(1, (long) (policy.capacity() * leaseFraction));
+                if (lease.expiresAt > now) {
+                    // Used up before it expired
+                    lease.size = Math.min(maxSize, lease.size * 2);
+                }
+                long needed = tokens - lease.tokens;
+                take(key, policy, Math.max(needed, Math.min(lease.size, maxSize)), needed, lease);
+                now = System.currentTimeMillis();
+            }
+            long waitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lease.refillAt - now));
+            if (lease.tokens >= tokens) {
+                lease.tokens -= tokens;
+                return ConsumptionProbe.consumed(lease.tokens + lease.remoteRemaining, waitNanos);
+            }
+            return ConsumptionProbe.rejected(lease.tokens + lease.remoteRemaining, waitNanos, waitNanos);
+        }
+    }
+
+    /**
+     * Settles a charge: a shortfall comes out of the local lease first and the
+     * rest out of Redis, even into debt; refunds go back to Redis so they
+     * outlive the lease.
+     */
+    public void adjust(String key, RateLimitService.Policy policy, long delta) {
+        Lease lease = leases.get(key, k -> new Lease());
+        synchronized (lease) {
+            expire(key, lease, System.currentTimeMillis());
+            if (delta > 0) {
+                long fromLease = Math.min(lease.tokens, delta);
+                lease.tokens -= fromLease;
+                delta -= fromLease;
+            }
+            if (delta == 0) {
+                return;
+            }
+            Long remaining = redisTemplate.execute(ADJUST_SCRIPT, List.of("rate-limit:" + key),
+                    String.valueOf(policy.capacity()), String.valueOf(policy.refillPeriod().toMillis()),
+                    String.valueOf(delta));
+            lease.remoteRemaining = Math.max(0, remaining);
+            if (lease.remoteRemaining > 0) {
+                lease.emptyUntil = 0;
+            }
+        }
+    }
+
+    /**
+     * Gives the tokens of expired leases back to Redis, so clients are not
+     * held below their limit by tokens no node will hand out.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.redis.lease-ttl:1s}")
+    public void returnExpiredLeases() {
+        long now = System.currentTimeMillis();
+        leases.asMap().forEach((key, lease) -> {
+            synchronized (lease) {
+                try {
+                    expire(key, lease, now);
+                } catch (DataAccessException e) {
+                    // The tokens lapse at the next refill instead
+                    logger.debug("Could not return leased tokens of {}: {}", key, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void expire(String key, Lease lease, long now) {
+        if (lease.expiresAt > now || lease.tokens == 0) {
+            return;
+        }
+        long unused = lease.tokens;
+        lease.tokens = 0;
+        lease.size = Math.max(1, lease.size / 2);
+        Long remaining = redisTemplate.execute(RETURN_SCRIPT, List.of("rate-limit:" + key),
+                String.valueOf(lease.capacity), String.valueOf(unused), String.valueOf(lease.refilled));
+        if (remaining != null && remaining > 0) {
+            lease.remoteRemaining = remaining;
+            lease.emptyUntil = 0;
+        }
+    }
+
+    private void take(String key, RateLimitService.Policy policy, long wanted, long needed, Lease lease) {
+        List<?> result = redisTemplate.execute(TAKE_SCRIPT, List.of("rate-limit:" + key),
+                String.valueOf(policy.capacity()),
+                String.valueOf(policy.refillPeriod().toMillis()),
+                String.valueOf(Math.min(wanted, policy.capacity())),
+                String.valueOf(needed));
+        // Lease times start when Redis answered, not when the call was made
+        long now = System.currentTimeMillis();
+        long refilled = ((Number) result.get(3)).longValue();
+        if (refilled != lease.refilled) {
+            // Tokens left from before the refill lapse, as they would have in Redis
+            lease.tokens = 0;
+            lease.refilled = refilled;
+        }
+        lease.capacity = policy.capacity();
+        lease.tokens += ((Number) result.get(0)).longValue();
+        // Negative while the bucket is in debt
+        lease.remoteRemaining = Math.max(0, ((Number) result.get(1)).longValue());
+        lease.refillAt = now + ((Number) result.get(2)).longValue();
+        lease.expiresAt = now + leaseTtl.toMillis();
+        // Rejected clients that keep retrying are answered locally until the refill,
+        // or until other nodes' leases may have expired and returned tokens
+        lease.emptyUntil = lease.remoteRemaining == 0 ? Math.min(lease.refillAt, lease.expiresAt) : 0;
+    }
+}
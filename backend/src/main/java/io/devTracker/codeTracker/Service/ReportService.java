@@ -0,0 +1,139 @@
+package io.devTracker.codeTracker.Service;
+
+import io.devTracker.codeTracker.Dto.ReportDTO;
+import io.devTracker.codeTracker.Model.Activity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+public class ReportService {
+
+    // Reads span the hot collection and the cold archive
+    @Autowired
+    private ActivityArchiveService activityArchiveService;
+
+    /**
+    * Utility method to calculate the start date of a period based on the string value.
+    * Supports "day", "week" (default), and "month".
+    */
+    private Date getPeriodStart(String period) {
+        Calendar cal = Calendar.getInstance();
+        switch (period) {
+            case "day":
+                cal.add(Calendar.DAY_OF_YEAR, -1);
+                break;
+            case "month":
+                cal.add(Calendar.MONTH, -1);
+                break;
+            default:  // "week"
+                cal.add(Calendar.WEEK_OF_YEAR, -1);
+                break;
+        }
+        return cal.getTime();
+    }
+
+    /**
+    * Period names accepted by the summary; anything else is treated as "week".
+    * Also used in the summary cache key so equivalent requests share an entry.
+    */
+    public String normalizePeriod(String period) {
+        return "day".equals(period) || "month".equals(period) ? period : "week";
+    }
+
+    /**
+    * Summary of a user's activity over a time period (day, week, or month):
+    * total time spent, time per programming language and time per project.
+    */
+    @Cacheable(value = "summary", key = "#userId + '-' + #root.target.normalizePeriod(#period)", sync = true)
+    public Map<String, Object> getSummary(String userId, String period) {
+        // Determine the start date for the requested period
+        Date from = getPeriodStart(period);
+
+        // Fetch activities for the user that occurred after the start date
+        List<Activity> filtered = activityArchiveService.findActivities(userId, from, null);
+        return summarize(filtered);
+    }
+
+    /**
+    * Summary of a user's activity in one calendar month.
+    */
+    public Map<String, Object> getMonthSummary(String userId, YearMonth month) {
+        ZoneId zone = ZoneId.systemDefault();
+        List<Activity> activities = activityArchiveService.findActivities(
+                userId,
+                Date.from(month.atDay(1).atStartOfDay(zone).toInstant()),
+                Date.from(month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant())
+        );
+        return summarize(activities);
+    }
+
+    private Map<String, Object> summarize(List<Activity> filtered) {
+        // Calculate total time spent (in milliseconds)
+        long totalTime = filtered.stream()
+                .mapToLong(a -> a.getEndTime().getTime() - a.getStartTime().getTime())
+                .sum();
+
+        // Group by programming language and sum durations
+        Map<String, Long> byLanguage = filtered.stream()
+                .collect(Collectors.groupingBy(
+                        Activity::getLanguage,
+                        Collectors.summingLong(a -> a.getEndTime().getTime() - a.getStartTime().getTime())
+                ));
+
+        // Group by project name and sum durations
+        Map<String, Long> byProject = filtered.stream()
+                .collect(Collectors.groupingBy(
+                        Activity::getProjectName,
+                        Collectors.summingLong(a -> a.getEndTime().getTime() - a.getStartTime().getTime())
+                ));
+
+        return Map.of(
+                "totalTime", totalTime,
+                "byLanguage", byLanguage,
+                "byProject", byProject
+        );
+    }
+
+    /**
+    * Number of activities per day for the given year.
+    *
+    * @param userId the user for whom the heatmap data is being generated
+    * @param year the year for which to generate the heatmap data
+    * @return a list of HeatmapEntry objects, each containing a date and the corresponding activity level
+    */
+    @Cacheable(value = "heatmap", key = "#userId + '-' + #year", sync = true)
+    public List<ReportDTO.HeatmapEntry> getHeatmap(String userId, int year) {
+        // Define date range: Jan 1 of the given year up to (excluding) Jan 1 of the next
+        LocalDate startOfYear = LocalDate.of(year, 1, 1);
+        LocalDate startOfNextYear = startOfYear.plusYears(1);
+
+        // Fetch user activities within the given year
+        List<Activity> activities = activityArchiveService.findActivities(
+                userId,
+                Date.from(startOfYear.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                Date.from(startOfNextYear.atStartOfDay(ZoneId.systemDefault()).toInstant())
+        );
+
+        // Group activities by date and count how many occurred on each day
+        Map<LocalDate, Integer> map = activities.stream()
+                .collect(Collectors.groupingBy(
+                        a -> a.getStartTime().toInstant().atZone(ZoneId.systemDefault()).toLocalDate(),
+                        Collectors.summingInt(a -> 1)
+                ));
+
+        // Convert the map into a list of HeatmapEntry objects
+        return map.entrySet().stream()
+                .map(e -> new ReportDTO.HeatmapEntry(e.getKey().toString(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+}
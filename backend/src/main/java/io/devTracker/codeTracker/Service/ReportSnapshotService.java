@@ -0,0 +1,194 @@
+package io.devTracker.codeTracker.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.devTracker.codeTracker.Dto.ReportDTO;
+import io.devTracker.codeTracker.Model.Activity;
+import io.devTracker.codeTracker.Model.ReportSnapshot;
+import io.devTracker.codeTracker.Repository.ReportSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshots of reports for closed periods, stored in report_snapshots.
+ *
+ * A past year's heatmap or a past month's summary only changes when a
+ * backfill or delete touches that period, so it is computed once, frozen and
+ * served under a URL carrying a hash of its content. Invalidation deletes
+ * the snapshot; the next request rebuilds it, under a new URL if the content
+ * changed.
+ */
+@Service
+public class ReportSnapshotService {
+
+    static final String HEATMAP = "heatmap";
+    static final String SUMMARY = "summary";
+
+    @Autowired
+    private ReportSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    public boolean isClosed(int year) {
+        return year < Year.now().getValue();
+    }
+
+    public boolean isClosed(YearMonth month) {
+        return month.isBefore(YearMonth.now());
+    }
+
+    /**
+     * Heatmap snapshot of a closed year, built on first access.
+     */
+    public ReportSnapshot getHeatmapSnapshot(String userId, int year) {
+        String period = String.valueOf(year);
+        return snapshotRepository.findById(id(userId, HEATMAP, period)).orElseGet(() -> {
+            DataVersionService.DataVersion before = dataVersionService.readVersion(userId);
+            List<ReportDTO.HeatmapEntry> heatmap = new ArrayList<>(reportService.getHeatmap(userId, year));
+            heatmap.sort(Comparator.comparing(ReportDTO.HeatmapEntry::date));
+            return save(ReportSnapshot.builder()
+                    .id(id(userId, HEATMAP, period))
+                    .userId(userId)
+                    .type(HEATMAP)
+                    .period(period)
+                    .version(contentHash(heatmap))
+                    .heatmap(heatmap)
+                    .build(), before);
+        });
+    }
+
+    /**
+     * Summary snapshot of a closed month, built on first access.
+     */
+    public ReportSnapshot getMonthSummarySnapshot(String userId, YearMonth month) {
+        String period = month.toString();
+        return snapshotRepository.findById(id(userId, SUMMARY, period)).orElseGet(() -> {
+            DataVersionService.DataVersion before = dataVersionService.readVersion(userId);
+            Map<String, Object> summary = reportService.getMonthSummary(userId, month);
+            return save(ReportSnapshot.builder()
+                    .id(id(userId, SUMMARY, period))
+                    .userId(userId)
+                    .type(SUMMARY)
+                    .period(period)
+                    .version(contentHash(summary))
+                    .summary(toEntries(summary))
+                    .build(), before);
+        });
+    }
+
+    /**
+     * The summary of a snapshot in the shape {@link ReportService#getMonthSummary} returns.
+     */
+    public Map<String, Object> getSummary(ReportSnapshot snapshot) {
+        return toMap(snapshot.getSummary());
+    }
+
+    /**
+     * Deletes the snapshots of every closed year and month the activities fall in.
+     */
+    public void invalidate(String userId, Collection<Activity> activities) {
+        ZoneId zone = ZoneId.systemDefault();
+        Set<String> ids = new LinkedHashSet<>();
+        for (Activity activity : activities) {
+            if (activity.getStartTime() == null) {
+                continue;
+            }
+            ZonedDateTime start = activity.getStartTime().toInstant().atZone(zone);
+            YearMonth month = YearMonth.from(start);
+            if (isClosed(month)) {
+                ids.add(id(userId, SUMMARY, month.toString()));
+            }
+            if (isClosed(start.getYear())) {
+                ids.add(id(userId, HEATMAP, String.valueOf(start.getYear())));
+            }
+        }
+        if (!ids.isEmpty()) {
+            snapshotRepository.deleteAllById(ids);
+        }
+    }
+
+    /**
+     * Saves a snapshot built from data read after the user's data version
+     * was {@code before}. A write that landed meanwhile may have deleted the
+     * snapshot before this save, so the version is checked once saved and
+     * the snapshot deleted again if it moved; writes bump the version before
+     * their last snapshot delete (see CacheInvalidationService), so one of
+     * the two catches it. The caller is still answered with what was built.
+     */
+    private ReportSnapshot save(ReportSnapshot snapshot, DataVersionService.DataVersion before) {
+        snapshot.setCreatedAt(new Date());
+        ReportSnapshot saved = snapshotRepository.save(snapshot);
+        if (dataVersionService.readVersion(snapshot.getUserId()).version() != before.version()) {
+            snapshotRepository.deleteById(snapshot.getId());
+        }
+        return saved;
+    }
+
+    private static List<ReportSnapshot.SummaryEntry> toEntries(Map<String, ?> map) {
+        List<ReportSnapshot.SummaryEntry> entries = new ArrayList<>(map.size());
+        map.forEach((key, value) -> {
+            if (value instanceof Map<?, ?> nested) {
+                @SuppressWarnings("unchecked")
+                Map<String, ?> nestedMap = (Map<String, ?>) nested;
+                entries.add(new ReportSnapshot.SummaryEntry(key, null, toEntries(nestedMap)));
+            } else if (value instanceof Number number) {
+                entries.add(new ReportSnapshot.SummaryEntry(key, number.longValue(), null));
+            } else {
+                throw new IllegalArgumentException("Unsupported summary value for " + key + ": " + value);
+            }
+        });
+        return entries;
+    }
+
+    private static Map<String, Object> toMap(List<ReportSnapshot.SummaryEntry> entries) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (entries != null) {
+            for (ReportSnapshot.SummaryEntry entry : entries) {
+                map.put(entry.key(), entry.entries() != null ? toMap(entry.entries()) : entry.value());
+            }
+        }
+        return map;
+    }
+
+    private String contentHash(Object content) {
+        try {
+            // Sorted map keys keep the hash stable for equal content
+            byte[] json = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsString(content).getBytes(StandardCharsets.UTF_8);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash report snapshot", e);
+        }
+    }
+
+    private static String id(String userId, String type, String period) {
+        return userId + ":" + type + ":" + period;
+    }
+}
@@ -0,0 +1,321 @@
+package io.devTracker.codeTracker.Service;
+
+import com.mongodb.client.result.UpdateResult;
+import io.devTracker.codeTracker.Dto.OverviewDTO;
+import io.devTracker.codeTracker.Model.Activity;
+import io.devTracker.codeTracker.Model.Project;
+import io.devTracker.codeTracker.Model.UserStats;
+import io.devTracker.codeTracker.Repository.CustomActivityRepository;
+import io.devTracker.codeTracker.Repository.ProjectRepository;
+import io.devTracker.codeTracker.Repository.UserStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the per-user user_stats document behind the dashboard overview.
+ *
+ * Counters are updated incrementally on ingest and delete. Time-windowed
+ * counts are kept as a ring of day buckets addressed by epochDay % RING_DAYS;
+ * a slot holding an older day is reset before it is reused. A nightly
+ * reconciliation rebuilds every document from the raw collections and
+ * repairs any drift.
+ */
+@Service
+public class UserStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsService.class);
+
+    // Enough days for the 30-day month window plus today
+    static final int RING_DAYS = 32;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private CustomActivityRepository customActivityRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ActivityArchiveService activityArchiveService;
+
+    private final Counter driftCounter;
+
+    public UserStatsService(MeterRegistry meterRegistry) {
+        this.driftCounter = Counter.builder("user_stats.reconcile.drift")
+                .description("User stats documents repaired by reconciliation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Overview summary from the stats document; builds it on first access.
+     */
+    public OverviewDTO.Summary getSummary(String userId) {
+        UserStats stats = userStatsRepository.findById(userId)
+                .filter(existing -> existing.getReconciledAt() != null)
+                .orElseGet(() -> rebuild(userId));
+
+        long today = today();
+        long weekCount = countSince(stats, today - 7);
+        long monthCount = countSince(stats, today - 30);
+
+        return new OverviewDTO.Summary(
+                stats.getTotalProjects(),
+                stats.getTotalActivities(),
+                toRecentItem(stats.getRecentProject()),
+                toRecentItem(stats.getRecentActivity()),
+                weekCount,
+                monthCount);
+    }
+
+    public void recordActivities(String userId, List<Activity> saved) {
+        if (saved.isEmpty()) {
+            return;
+        }
+
+        Activity newest = saved.stream()
+                .max(Comparator.comparing(Activity::getCreatedAt))
+                .orElseThrow();
+        Update update = new Update()
+                .inc("totalActivities", saved.size())
+                .set("recentActivity", new UserStats.Recent(newest.getId(), newest.getProjectName(), newest.getCreatedAt()))
+                .set("updatedAt", new Date());
+        if (!updateExisting(userId, update)) {
+            // No stats yet: build from the raw collections, which already include these activities
+            rebuild(userId);
+            return;
+        }
+
+        Map<Long, Long> perDay = saved.stream()
+                .collect(Collectors.groupingBy(a -> toEpochDay(a.getStartTime()), Collectors.counting()));
+        perDay.forEach((day, count) -> addToDay(userId, day, count));
+    }
+
+    public void recordActivityDeleted(Activity activity) {
+        String userId = activity.getUserId();
+        if (!updateExisting(userId, new Update().inc("totalActivities", -1).set("updatedAt", new Date()))) {
+            return;
+        }
+
+        long day = toEpochDay(activity.getStartTime());
+        int slot = slot(day);
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(userId).and("days." + slot + ".day").is(day)),
+                new Update().inc("days." + slot + ".count", -1),
+                UserStats.class);
+        // The recent activity pointer is repaired by the next reconciliation
+    }
+
+    public void recordProjectCreated(Project project) {
+        Update update = new Update()
+                .inc("totalProjects", 1)
+                .set("recentProject", new UserStats.Recent(project.getId(), project.getName(), project.getCreatedAt()))
+                .set("updatedAt", new Date());
+        if (!updateExisting(project.getUserId(), update)) {
+            rebuild(project.getUserId());
+        }
+    }
+
+    public void recordProjectRenamed(Project project) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(project.getUserId()).and("recentProject.id").is(project.getId())),
+                new Update().set("recentProject.name", project.getName()),
+                UserStats.class);
+    }
+
+    public void recordProjectDeleted(Project project) {
+        String userId = project.getUserId();
+        UserStats.Recent recent = projectRepository.findTopByUserIdOrderByCreatedAtDesc(userId)
+                .map(p -> new UserStats.Recent(p.getId(), p.getName(), p.getCreatedAt()))
+                .orElse(null);
+        updateExisting(userId, new Update()
+                .inc("totalProjects", -1)
+                .set("recentProject", recent)
+                .set("updatedAt", new Date()));
+    }
+
+    /**
+     * Nightly reconciliation of every stats document against the raw collections.
+     */
+    @Scheduled(cron = "${user-stats.reconcile.cron:0 0 4 * * *}")
+    public void reconcileAll() {
+        Query query = new Query();
+        query.fields().include("_id");
+        List<String> userIds = mongoTemplate.find(query, Document.class, "users").stream()
+                .map(doc -> doc.get("_id").toString())
+                .collect(Collectors.toList());
+
+        int repaired = 0;
+        for (String userId : userIds) {
+            try {
+                UserStats before = userStatsRepository.findById(userId)
+                        .filter(existing -> existing.getReconciledAt() != null)
+                        .orElse(null);
+                UserStats after = rebuild(userId);
+                if (before != null && hasDrifted(before, after)) {
+                    logger.warn("Repaired drifted user stats for user {}: activities {} -> {}, projects {} -> {}",
+                            userId, before.getTotalActivities(), after.getTotalActivities(),
+                            before.getTotalProjects(), after.getTotalProjects());
+                    driftCounter.increment();
+                    repaired++;
+                }
+            } catch (Exception e) {
+                logger.error("Failed to reconcile user stats for user {}", userId, e);
+            }
+        }
+        logger.info("Reconciled user stats for {} users, {} repaired", userIds.size(), repaired);
+    }
+
+    /**
+     * Recomputes a user's stats document from the raw collections. The data
+     * version is left untouched.
+     */
+    public UserStats rebuild(String userId) {
+        long today = today();
+        long firstDay = today - (RING_DAYS - 1);
+        Date windowStart = Date.from(LocalDate.ofEpochDay(firstDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        Map<LocalDate, Long> perDay = customActivityRepository.countByUserIdPerDay(userId, windowStart);
+        List<UserStats.DayBucket> days = emptyRing();
+        perDay.forEach((date, count) -> {
+            long day = date.toEpochDay();
+            if (day >= firstDay) {
+                days.set(slot(day), new UserStats.DayBucket(day, count));
+            }
+        });
+
+        Activity recentActivity = customActivityRepository.findMostRecentByUserId(userId);
+        UserStats stats = UserStats.builder()
+                .id(userId)
+                .totalActivities(customActivityRepository.countByUserId(userId) + activityArchiveService.countArchived(userId))
+                .totalProjects(projectRepository.countByUserId(userId))
+                .recentProject(projectRepository.findTopByUserIdOrderByCreatedAtDesc(userId)
+                        .map(p -> new UserStats.Recent(p.getId(), p.getName(), p.getCreatedAt()))
+                        .orElse(null))
+                .recentActivity(recentActivity == null ? null : new UserStats.Recent(
+                        recentActivity.getId(), recentActivity.getProjectName(), recentActivity.getCreatedAt()))
+                .days(days)
+                .reconciledAt(new Date())
+                .updatedAt(new Date())
+                .build();
+
+        Document document = new Document();
+        mongoTemplate.getConverter().write(stats, document);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(userId)),
+                Update.fromDocument(document, "_id", "_class", "dataVersion", "dataModifiedAt"),
+                UserStats.class);
+        return stats;
+    }
+
+    /**
+     * Adds to a day bucket, claiming the ring slot first if it still holds an
+     * older day. Days that already fell out of the ring window are ignored.
+     */
+    private void addToDay(String userId, long day, long count) {
+        if (day <= today() - RING_DAYS) {
+            return;
+        }
+
+        int slot = slot(day);
+        String dayField = "days." + slot + ".day";
+        Query sameDay = Query.query(Criteria.where("_id").is(userId).and(dayField).is(day));
+        Update increment = new Update().inc("days." + slot + ".count", count);
+
+        if (mongoTemplate.updateFirst(sameDay, increment, UserStats.class).getMatchedCount() > 0) {
+            return;
+        }
+        UpdateResult reset = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(userId).and(dayField).lt(day)),
+                new Update().set("days." + slot, new UserStats.DayBucket(day, count)),
+                UserStats.class);
+        if (reset.getMatchedCount() > 0) {
+            return;
+        }
+        // Another writer claimed the slot for this day in the meantime
+        mongoTemplate.updateFirst(sameDay, increment, UserStats.class);
+    }
+
+    private boolean updateExisting(String userId, Update update) {
+        // A document holding only a data version has not been built yet
+        Query query = Query.query(Criteria.where("_id").is(userId).and("reconciledAt").ne(null));
+        return mongoTemplate.updateFirst(query, update, UserStats.class).getMatchedCount() > 0;
+    }
+
+    private long countSince(UserStats stats, long fromDay) {
+        if (stats.getDays() == null) {
+            return 0;
+        }
+        return stats.getDays().stream()
+                .filter(bucket -> bucket.getDay() >= fromDay)
+                .mapToLong(UserStats.DayBucket::getCount)
+                .sum();
+    }
+
+    private boolean hasDrifted(UserStats before, UserStats after) {
+        if (before.getTotalActivities() != after.getTotalActivities()
+                || before.getTotalProjects() != after.getTotalProjects()) {
+            return true;
+        }
+        return !toDayMap(before).equals(toDayMap(after));
+    }
+
+    private Map<Long, Long> toDayMap(UserStats stats) {
+        Map<Long, Long> map = new TreeMap<>();
+        long firstDay = today() - (RING_DAYS - 1);
+        if (stats.getDays() != null) {
+            stats.getDays().stream()
+                    .filter(bucket -> bucket.getDay() >= firstDay && bucket.getCount() != 0)
+                    .forEach(bucket -> map.put(bucket.getDay(), bucket.getCount()));
+        }
+        return map;
+    }
+
+    private static List<UserStats.DayBucket> emptyRing() {
+        List<UserStats.DayBucket> days = new ArrayList<>(RING_DAYS);
+        for (int i = 0; i < RING_DAYS; i++) {
+            days.add(new UserStats.DayBucket(-1, 0));
+        }
+        return days;
+    }
+
+    private static OverviewDTO.RecentItem toRecentItem(UserStats.Recent recent) {
+        return recent == null ? null : new OverviewDTO.RecentItem(
+                recent.getId(), recent.getName(), recent.getCreatedAt().toInstant());
+    }
+
+    private static int slot(long day) {
+        return (int) Math.floorMod(day, (long) RING_DAYS);
+    }
+
+    private static long today() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    private static long toEpochDay(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+}
@@ -0,0 +1,165 @@
+package io.devTracker.codeTracker.Config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the interceptor against a local stand-in for an upstream.
+ */
+class UpstreamInterceptorTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200));
+        server.createContext("/missing", exchange -> respond(exchange, 404));
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200);
+        });
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        byte[] body = "{}".getBytes();
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private InterceptingClientHttpRequestFactory requestFactory(UpstreamInterceptor interceptor, Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(HttpClient.newHttpClient());
+        requestFactory.setReadTimeout(readTimeout);
+        return new InterceptingClientHttpRequestFactory(requestFactory, List.of(interceptor));
+    }
+
+    private ClientHttpResponse call(InterceptingClientHttpRequestFactory requestFactory, String path) throws IOException {
+        URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + path);
+        return requestFactory.createRequest(uri, HttpMethod.GET).execute();
+    }
+
+    private long count(String outcome) {
+        return meterRegistry.get("http.client.upstream").tag("outcome", outcome).timer().count();
+    }
+
+    @Test
+    void permitIsHeldUntilTheResponseIsClosed() throws IOException {
+        UpstreamInterceptor interceptor = new UpstreamInterceptor("test", 1, Duration.ofMillis(50), meterRegistry);
+        InterceptingClientHttpRequestFactory requestFactory = requestFactory(interceptor, Duration.ofSeconds(5));
+
+        ClientHttpResponse first = call(requestFactory, "/ok");
+        IOException rejected = assertThrows(IOException.class, () -> call(requestFactory, "/ok"));
+        assertTrue(rejected.getMessage().startsWith("Too many concurrent calls"));
+        assertEquals(1, meterRegistry.get("http.client.upstream.rejected").counter().count());
+
+        first.close();
+        // Closing twice must not hand out a second permit
+        first.close();
+        try (ClientHttpResponse second = call(requestFactory, "/missing")) {
+            assertEquals(404, second.getStatusCode().value());
+            assertThrows(IOException.class, () -> call(requestFactory, "/ok"));
+        }
+        assertEquals(1, count("SUCCESS"));
+        assertEquals(1, count("CLIENT_ERROR"));
+    }
+
+    @Test
+    void timeoutReleasesThePermit() throws IOException {
+        UpstreamInterceptor interceptor = new UpstreamInterceptor("test", 1, Duration.ofMillis(50), meterRegistry);
+        InterceptingClientHttpRequestFactory requestFactory = requestFactory(interceptor, Duration.ofMillis(200));
+
+        assertThrows(IOException.class, () -> call(requestFactory, "/slow"));
+        assertEquals(1, count("IO_ERROR"));
+
+        try (ClientHttpResponse response = call(requestFactory, "/ok")) {
+            assertEquals(200, response.getStatusCode().value());
+        }
+    }
+
+    @Test
+    void unreadableStatusClosesTheResponseAndReleasesThePermit() throws IOException {
+        UpstreamInterceptor interceptor = new UpstreamInterceptor("test", 1, Duration.ofMillis(50), meterRegistry);
+        AtomicBoolean closed = new AtomicBoolean();
+        ClientHttpResponse broken = new ClientHttpResponse() {
+            @Override
+            public HttpStatusCode getStatusCode() throws IOException {
+                throw new IOException("Malformed status line");
+            }
+
+            @Override
+            public String getStatusText() throws IOException {
+                throw new IOException("Malformed status line");
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return new HttpHeaders();
+            }
+
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        assertThrows(IOException.class,
+                () -> interceptor.intercept(new MockClientHttpRequest(), new byte[0], (request, body) -> broken));
+        assertTrue(closed.get());
+        assertEquals(1, count("IO_ERROR"));
+
+        // The permit is back, so a real call gets through
+        try (ClientHttpResponse response = call(requestFactory(interceptor, Duration.ofSeconds(5)), "/ok")) {
+            assertEquals(200, response.getStatusCode().value());
+        }
+    }
+}
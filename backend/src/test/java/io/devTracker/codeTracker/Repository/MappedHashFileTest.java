@@ -0,0 +1,161 @@
+package io.devTracker.codeTracker.Repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedHashFileTest {
+
+    private static final int SIZE = 64 * 1024;
+    private static final int BUCKETS = 64;
+    private static final long NOW = 1_000_000L;
+    private static final long LATER = NOW + 60_000;
+
+    @TempDir
+    Path directory;
+
+    private Path path() {
+        return directory.resolve("test.cache");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE, BUCKETS)) {
+            assertTrue(file.put("user:1", bytes("one"), LATER, NOW));
+            assertTrue(file.put("user:2", bytes("two"), LATER, NOW));
+            assertTrue(file.put("user:1", bytes("uno"), LATER, NOW));
+            assertTrue(file.put("user:3", bytes("short-lived"), NOW + 10, NOW));
+
+            assertArrayEquals(bytes("uno"), file.get("user:1", NOW));
+            assertArrayEquals(bytes("two"), file.get("user:2", NOW));
+            assertNull(file.get("user:3", NOW + 10), "expired entry was returned");
+            assertNull(file.get("missing", NOW));
+
+            file.remove("user:1", NOW);
+            assertNull(file.get("user:1", NOW));
+            file.put("admin:1", bytes("a"), LATER, NOW);
+            file.removeByPrefix("user:", NOW);
+            assertNull(file.get("user:2", NOW));
+            assertArrayEquals(bytes("a"), file.get("admin:1", NOW));
+            assertEquals(1, file.size(NOW));
+        }
+    }
+
+    @Test
+    void overflowCompactsLiveEntries() throws IOException {
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE, BUCKETS)) {
+            assertFalse(file.put("huge", new byte[SIZE], LATER, NOW));
+            file.setEpoch("42-1");
+
+            byte[] value = new byte[1000];
+            // Rewriting the same keys fills the data region many times over
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < 10; i++) {
+                    value[0] = (byte) round;
+                    assertTrue(file.put("key:" + i, value.clone(), LATER, NOW), "put " + round + "/" + i);
+                }
+            }
+            assertEquals(10, file.size(NOW));
+            for (int i = 0; i < 10; i++) {
+                assertEquals(19, file.get("key:" + i, NOW)[0]);
+            }
+            assertEquals("42-1", file.epoch());
+
+            // More live data than fits: the put that cannot be made room for is refused
+            int stored = 0;
+            for (int i = 0; i < 100; i++) {
+                if (file.put("fill:" + i, new byte[1000], LATER, NOW)) {
+                    stored++;
+                }
+            }
+            assertTrue(stored < 100);
+            assertArrayEquals(new byte[1000], file.get("fill:0", NOW));
+        }
+    }
+
+    @Test
+    void rejectsSizeTooSmallForTheBuckets() {
+        assertThrows(IllegalArgumentException.class, () -> MappedHashFile.open(path(), 1024, 1024));
+    }
+
+    @Test
+    void reopenKeepsEntriesAndEpoch() throws IOException {
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE, BUCKETS)) {
+            assertEquals("0-0", file.epoch());
+            file.put("user:1", bytes("one"), LATER, NOW);
+            file.put("user:2", bytes("two"), LATER, NOW);
+            file.remove("user:2", NOW);
+            file.setEpoch("1700000000000-3");
+        }
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE, BUCKETS)) {
+            assertArrayEquals(bytes("one"), file.get("user:1", NOW));
+            assertNull(file.get("user:2", NOW));
+            assertEquals("1700000000000-3", file.epoch());
+
+            // Clearing drops the entries but not the invalidations already applied
+            file.clear();
+            assertEquals(0, file.size(NOW));
+            assertEquals("1700000000000-3", file.epoch());
+        }
+    }
+
+    @Test
+    void reopenWithDifferentSizeStartsEmpty() throws IOException {
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE, BUCKETS)) {
+            file.put("user:1", bytes("one"), LATER, NOW);
+            file.setEpoch("5-0");
+        }
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE * 2, BUCKETS)) {
+            assertNull(file.get("user:1", NOW));
+            assertEquals("0-0", file.epoch());
+        }
+    }
+
+    @Test
+    void corruptHeaderStartsEmpty() throws IOException {
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE, BUCKETS)) {
+            file.put("user:1", bytes("one"), LATER, NOW);
+            file.setEpoch("5-0");
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(path().toFile(), "rw")) {
+            raw.writeInt(0xBADBAD);
+        }
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE, BUCKETS)) {
+            assertNull(file.get("user:1", NOW));
+            assertEquals(0, file.size(NOW));
+            assertEquals("0-0", file.epoch());
+            assertTrue(file.put("user:1", bytes("again"), LATER, NOW));
+        }
+        assertEquals(SIZE, Files.size(path()));
+    }
+
+    @Test
+    void corruptEndOfDataStartsEmpty() throws IOException {
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE, BUCKETS)) {
+            file.put("user:1", bytes("one"), LATER, NOW);
+        }
+        try (RandomAccessFile raw = new RandomAccessFile(path().toFile(), "rw")) {
+            raw.seek(16);
+            raw.writeLong(SIZE + 1L);
+        }
+        try (MappedHashFile file = MappedHashFile.open(path(), SIZE, BUCKETS)) {
+            assertNull(file.get("user:1", NOW));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package io.devTracker.codeTracker.Security;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Verifies tokens signed with generated keys, published by a local stand-in
+ * for google.jwks-url.
+ */
+class GoogleIdTokenVerifierTest {
+
+    private static final String CLIENT_ID = "test-client";
+    private static final String ISSUER = "https://accounts.google.com";
+    private static final Duration MIN_REFRESH_INTERVAL = Duration.ofMillis(300);
+
+    private static KeyPair first;
+    private static KeyPair second;
+
+    private HttpServer server;
+    private final AtomicInteger fetches = new AtomicInteger();
+    private volatile Map<String, KeyPair> publishedKeys;
+    private volatile String cacheControl = "public, max-age=3600";
+
+    @BeforeEach
+    void startServer() throws IOException, NoSuchAlgorithmException {
+        if (first == null) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            first = generator.generateKeyPair();
+            second = generator.generateKeyPair();
+        }
+        publishedKeys = Map.of("first", first);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/certs", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = jwks().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private String jwks() {
+        return publishedKeys.entrySet().stream()
+                .map(entry -> {
+                    RSAPublicKey key = (RSAPublicKey) entry.getValue().getPublic();
+                    return "{\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\",\"kid\":\"" + entry.getKey()
+                            + "\",\"n\":\"" + base64Url(key.getModulus()) + "\",\"e\":\"" + base64Url(key.getPublicExponent()) + "\"}";
+                })
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // Drop the sign byte
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private GoogleIdTokenVerifier verifier() {
+        return new GoogleIdTokenVerifier(new RestTemplate(),
+                "http://localhost:" + server.getAddress().getPort() + "/certs", CLIENT_ID, MIN_REFRESH_INTERVAL);
+    }
+
+    private static String token(String kid, KeyPair keyPair, String audience, String issuer, Duration validFor) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setHeaderParam("kid", kid)
+                .setSubject("google-user")
+                .setAudience(audience)
+                .setIssuer(issuer)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + validFor.toMillis()))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    private static String token(String kid, KeyPair keyPair) {
+        return token(kid, keyPair, CLIENT_ID, ISSUER, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void acceptsAValidTokenAndCachesTheKeys() {
+        GoogleIdTokenVerifier verifier = verifier();
+
+        Claims claims = verifier.verify(token("first", first));
+        assertNotNull(claims);
+        assertEquals("google-user", claims.getSubject());
+        assertNotNull(verifier.verify(token("first", first, CLIENT_ID, "accounts.google.com", Duration.ofMinutes(5))));
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void unknownKidRefetchesAtMostOncePerMinRefreshInterval() throws InterruptedException {
+        GoogleIdTokenVerifier verifier = verifier();
+        assertNotNull(verifier.verify(token("first", first)));
+
+        // Google rotates in a new key; right after a fetch it is not picked up yet
+        publishedKeys = Map.of("first", first, "second", second);
+        assertNull(verifier.verify(token("second", second)));
+        assertEquals(1, fetches.get());
+
+        Thread.sleep(MIN_REFRESH_INTERVAL.toMillis() + 100);
+        assertNotNull(verifier.verify(token("second", second)));
+        assertNotNull(verifier.verify(token("first", first)));
+        assertEquals(2, fetches.get());
+
+        // A kid that is not published does not make every token hit the endpoint
+        for (int i = 0; i < 5; i++) {
+            assertNull(verifier.verify(token("unknown", second)));
+        }
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void keysAreRefetchedAfterMaxAge() throws InterruptedException {
+        cacheControl = "public, max-age=1, must-revalidate";
+        GoogleIdTokenVerifier verifier = verifier();
+        assertNotNull(verifier.verify(token("first", first)));
+        assertNotNull(verifier.verify(token("first", first)));
+        assertEquals(1, fetches.get());
+
+        // Once the keys are stale a known kid refetches too, and a retired key stops verifying
+        publishedKeys = Map.of("second", second);
+        Thread.sleep(1100);
+        assertNull(verifier.verify(token("first", first)));
+        assertEquals(2, fetches.get());
+        assertNotNull(verifier.verify(token("second", second)));
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void rejectsWrongAudienceIssuerAndExpiredTokens() {
+        GoogleIdTokenVerifier verifier = verifier();
+
+        assertNull(verifier.verify(token("first", first, "another-client", ISSUER, Duration.ofMinutes(5))));
+        assertNull(verifier.verify(token("first", first, CLIENT_ID, "https://evil.example.com", Duration.ofMinutes(5))));
+        assertNull(verifier.verify(token("first", first, CLIENT_ID, ISSUER, Duration.ofMinutes(-5))));
+        // Signed with a key the endpoint does not publish under that kid
+        assertNull(verifier.verify(token("first", second)));
+        assertNotNull(verifier.verify(token("first", first)));
+    }
+}
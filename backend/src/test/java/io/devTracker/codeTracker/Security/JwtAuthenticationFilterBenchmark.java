@@ -0,0 +1,109 @@
+package io.devTracker.codeTracker.Security;
+
+import io.devTracker.codeTracker.Model.User;
+import io.devTracker.codeTracker.Repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per request of JWT authentication in {@link JwtAuthenticationFilter}.
+ *
+ * distinctTokens=1 replays the same token, so every request after the first
+ * is a verified-claims cache hit; distinctTokens=8192 cycles through more
+ * tokens than the cache holds, so requests pay for full parsing and HMAC
+ * verification. The user lookup is stubbed out so only the token handling
+ * is measured.
+ *
+ * Not run by the test phase; after mvn test-compile, run the main method or
+ * org.openjdk.jmh.Main with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "YmVuY2htYXJrLXNlY3JldC1iZW5jaG1hcmstc2VjcmV0LWJlbmNobWFyaw==";
+
+    @Param({"1", "8192"})
+    private int distinctTokens;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest[] requests;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (request, response) -> { };
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecretString", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 1024L);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        jwtUtil.init();
+
+        User user = User.builder().id("user-1").email("bench@example.com").name("Bench").build();
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[] {UserRepository.class},
+                (proxy, method, args) -> "findById".equals(method.getName()) ? Optional.of(user) : null);
+        // A zero TTL keeps the principal cache out of the measurement
+        PrincipalCache principalCache = new PrincipalCache(userRepository, new SimpleMeterRegistry(), 1024, Duration.ZERO);
+        GoogleIdTokenVerifier googleIdTokenVerifier = new GoogleIdTokenVerifier(new RestTemplate(),
+                "http://localhost:1/certs", "benchmark-client", Duration.ofMinutes(1));
+        filter = new JwtAuthenticationFilter(jwtUtil, userRepository, principalCache, googleIdTokenVerifier,
+                "benchmark-client");
+
+        requests = new MockHttpServletRequest[distinctTokens];
+        for (int i = 0; i < distinctTokens; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/overview");
+            request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken("user-" + i, "bench" + i + "@example.com"));
+            requests[i] = request;
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object authenticate() throws Exception {
+        MockHttpServletRequest request = requests[next];
+        next = (next + 1) % distinctTokens;
+        filter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
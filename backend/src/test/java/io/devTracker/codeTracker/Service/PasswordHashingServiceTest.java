@@ -0,0 +1,83 @@
+package io.devTracker.codeTracker.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PasswordHashingServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(200);
+    private static final long HASH_MILLIS = 500;
+
+    private final AtomicInteger hashed = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExecutorService executor;
+    private PasswordHashingService service;
+
+    // Hashing takes longer than the timeout
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                Thread.sleep(HASH_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            hashed.incrementAndGet();
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        service = new PasswordHashingService(meterRegistry);
+        ReflectionTestUtils.setField(service, "passwordEncoder", slowEncoder);
+        ReflectionTestUtils.setField(service, "executor", executor);
+        ReflectionTestUtils.setField(service, "timeout", TIMEOUT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void startedHashingIsNotCutShortByTheTimeout() {
+        assertEquals("hashed:secret", service.hash("secret"));
+        assertEquals(0, meterRegistry.get("auth.password_hash.rejected").counter().count());
+    }
+
+    @Test
+    void workThatDoesNotStartInTimeIsRejectedAndDropped() throws Exception {
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> service.hash("first"));
+        Thread.sleep(50);
+
+        // The only worker is busy for longer than the timeout
+        assertThrows(PasswordHashingService.BusyException.class, () -> service.hash("second"));
+        assertEquals(1, meterRegistry.get("auth.password_hash.rejected").counter().count());
+
+        assertEquals("hashed:first", first.get());
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+        assertEquals(1, hashed.get(), "the rejected work still ran");
+    }
+}
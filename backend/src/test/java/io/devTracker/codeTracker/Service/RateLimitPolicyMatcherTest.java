@@ -0,0 +1,123 @@
+package io.devTracker.codeTracker.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateLimitPolicyMatcherTest {
+
+    private static final RateLimitService.Policy DEFAULT = policy("default", List.of());
+
+    private static RateLimitService.Policy policy(String name, List<String> methods, String... paths) {
+        return new RateLimitService.Policy(name, methods, List.of(paths), 10, Duration.ofSeconds(60),
+                RateLimitService.Policy.COST_REQUEST, 1024);
+    }
+
+    private static String match(RateLimitPolicyMatcher matcher, String method, String path) {
+        return matcher.match(method, path).name();
+    }
+
+    @Test
+    void literalWinsOverVariableWhichWinsOverCatchAll() {
+        RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(List.of(
+                policy("projects", List.of(), "/api/projects/**"),
+                policy("project", List.of(), "/api/projects/{projectId}"),
+                policy("project-stats", List.of(), "/api/projects/stats")
+        ), DEFAULT);
+
+        assertEquals("project-stats", match(matcher, "GET", "/api/projects/stats"));
+        assertEquals("project", match(matcher, "GET", "/api/projects/42"));
+        assertEquals("projects", match(matcher, "GET", "/api/projects/42/activities"));
+        // ** also matches nothing after the prefix
+        assertEquals("projects", match(matcher, "GET", "/api/projects"));
+        assertEquals("default", match(matcher, "GET", "/api/overview"));
+    }
+
+    @Test
+    void backtracksFromLiteralToVariable() {
+        RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(List.of(
+                policy("stats", List.of(), "/api/projects/stats"),
+                policy("project-files", List.of(), "/api/projects/{projectId}/files")
+        ), DEFAULT);
+
+        assertEquals("project-files", match(matcher, "GET", "/api/projects/stats/files"));
+        assertEquals("default", match(matcher, "GET", "/api/projects/stats/other"));
+    }
+
+    @Test
+    void trailingSlashMatchesLikeNone() {
+        RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(List.of(
+                policy("batch", List.of(), "/api/activities/batch"),
+                policy("device", List.of(), "/api/auth/device/")
+        ), DEFAULT);
+
+        assertEquals("batch", match(matcher, "POST", "/api/activities/batch/"));
+        assertEquals("device", match(matcher, "POST", "/api/auth/device"));
+        assertEquals("device", match(matcher, "POST", "/api/auth/device/"));
+    }
+
+    @Test
+    void doubleSlashDoesNotEscapeAPolicy() {
+        RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(List.of(
+                policy("auth-device", List.of("POST"), "/api/auth/device"),
+                policy("activities", List.of(), "/api/activities/**")
+        ), DEFAULT);
+
+        assertEquals("auth-device", match(matcher, "POST", "/api//auth/device"));
+        assertEquals("auth-device", match(matcher, "POST", "//api/auth//device//"));
+        assertEquals("activities", match(matcher, "GET", "/api/activities//42"));
+    }
+
+    @Test
+    void methodFallsBackToPolicyWithoutMethods() {
+        RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(List.of(
+                policy("batch", List.of("POST"), "/api/activities/batch"),
+                policy("activities-post", List.of("POST"), "/api/activities/**"),
+                policy("activities-get", List.of("GET"), "/api/activities/**"),
+                policy("activities", List.of(), "/api/activities/**")
+        ), DEFAULT);
+
+        assertEquals("batch", match(matcher, "POST", "/api/activities/batch"));
+        // No GET policy on the literal path: the less specific GET one applies
+        assertEquals("activities-get", match(matcher, "GET", "/api/activities/batch"));
+        assertEquals("activities", match(matcher, "DELETE", "/api/activities/batch"));
+        // Methods without a slot only match policies without methods
+        assertEquals("activities", match(matcher, "TRACE", "/api/activities/42"));
+    }
+
+    @Test
+    void methodSpecificPolicyDoesNotApplyToOtherMethods() {
+        RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(List.of(
+                policy("reports", List.of("GET"), "/api/reports/**")
+        ), DEFAULT);
+
+        assertEquals("reports", match(matcher, "GET", "/api/reports/heatmap"));
+        assertEquals("default", match(matcher, "POST", "/api/reports/heatmap"));
+    }
+
+    @Test
+    void firstPolicyWinsForSamePatternAndMethod() {
+        RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(List.of(
+                policy("first", List.of(), "/api/overview/**"),
+                policy("second", List.of(), "/api/overview/**")
+        ), DEFAULT);
+
+        assertEquals("first", match(matcher, "GET", "/api/overview"));
+    }
+
+    @Test
+    void rejectsCatchAllBeforeTheLastSegment() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitPolicyMatcher(
+                List.of(policy("bad", List.of(), "/api/**/activities")), DEFAULT));
+    }
+
+    @Test
+    void rejectsUnknownMethods() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitPolicyMatcher(
+                List.of(policy("bad", List.of("FETCH"), "/api/overview")), DEFAULT));
+    }
+}
@@ -0,0 +1,154 @@
+package io.devTracker.codeTracker.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs against the Redis at spring.data.redis.host/port (localhost:6379 by
+ * default) and is skipped when none is reachable.
+ */
+class RedisRateLimiterTest {
+
+    private static final Duration PERIOD = Duration.ofSeconds(2);
+    private static final Duration LEASE_TTL = Duration.ofMillis(50);
+
+    // Leases of up to 10 tokens
+    private static final RateLimitService.Policy POLICY = new RateLimitService.Policy("test", List.of(), List.of(),
+            20, PERIOD, RateLimitService.Policy.COST_REQUEST, 1024);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static boolean redisAvailable;
+
+    private String key;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                System.getProperty("spring.data.redis.host", "localhost"),
+                Integer.parseInt(System.getProperty("spring.data.redis.port", "6379")));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            redisAvailable = "PONG".equals(connection.ping());
+        } catch (RuntimeException e) {
+            redisAvailable = false;
+        }
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(redisAvailable, "No Redis reachable");
+        key = "test-" + UUID.randomUUID();
+    }
+
+    private static RedisRateLimiter newNode() {
+        return new RedisRateLimiter(connectionFactory, new SimpleMeterRegistry(), 0.5, LEASE_TTL,
+                Duration.ofMinutes(10), 1000);
+    }
+
+    @Test
+    void clientBelowTheLimitIsNeverRejected() throws InterruptedException {
+        RedisRateLimiter node = newNode();
+        // 15 requests per 2s period, spread out so every lease expires between requests
+        long interval = PERIOD.toMillis() / 15;
+        for (int i = 0; i < 45; i++) {
+            assertTrue(node.tryConsume(key, POLICY, 1).isConsumed(), "request " + i + " was rejected");
+            Thread.sleep(interval);
+        }
+    }
+
+    @Test
+    void clientBelowTheLimitIsNeverRejectedAcrossNodes() throws InterruptedException {
+        List<RedisRateLimiter> nodes = List.of(newNode(), newNode(), newNode());
+        long interval = PERIOD.toMillis() / 15;
+        for (int i = 0; i < 45; i++) {
+            assertTrue(nodes.get(i % nodes.size()).tryConsume(key, POLICY, 1).isConsumed(),
+                    "request " + i + " was rejected");
+            Thread.sleep(interval);
+        }
+    }
+
+    @Test
+    void burstGetsExactlyTheCapacity() {
+        RedisRateLimiter node = newNode();
+        for (int i = 0; i < POLICY.capacity(); i++) {
+            assertTrue(node.tryConsume(key, POLICY, 1).isConsumed(), "request " + i + " was rejected");
+        }
+        assertFalse(node.tryConsume(key, POLICY, 1).isConsumed());
+    }
+
+    @Test
+    void expiredLeaseReturnsUnusedTokens() throws InterruptedException {
+        RedisRateLimiter busy = newNode();
+        RedisRateLimiter other = newNode();
+        // Leases of 1, 2, 4 and 8 tokens: 15 taken, 3 left unused
+        for (int i = 0; i < 12; i++) {
+            assertTrue(busy.tryConsume(key, POLICY, 1).isConsumed(), "request " + i + " was rejected");
+        }
+        Thread.sleep(LEASE_TTL.toMillis() * 2);
+        busy.returnExpiredLeases();
+
+        int admitted = 0;
+        while (other.tryConsume(key, POLICY, 1).isConsumed()) {
+            admitted++;
+        }
+        assertEquals(POLICY.capacity() - 12, admitted);
+    }
+
+    @Test
+    void debtIsNotCapped() {
+        RedisRateLimiter node = newNode();
+        assertTrue(node.tryConsume(key, POLICY, 1).isConsumed());
+        node.adjust(key, POLICY, 3 * POLICY.capacity());
+
+        String tokens = new StringRedisTemplate(connectionFactory).<String, String>opsForHash()
+                .get("rate-limit:" + key, "tokens");
+        assertEquals(POLICY.capacity() - 1 - 3 * POLICY.capacity(), Long.parseLong(tokens));
+        assertFalse(node.tryConsume(key, POLICY, 1).isConsumed());
+    }
+
+    @Test
+    void debtOutlivesTheRefillPeriod() throws InterruptedException {
+        RedisRateLimiter node = newNode();
+        assertTrue(node.tryConsume(key, POLICY, 1).isConsumed());
+        node.adjust(key, POLICY, 3 * POLICY.capacity());
+
+        // One refill pays off a third of the debt
+        Thread.sleep(PERIOD.toMillis() + 200);
+        assertFalse(newNode().tryConsume(key, POLICY, 1).isConsumed());
+    }
+
+    @Test
+    void debtOnAnUntouchedBucketIsCharged() {
+        RedisRateLimiter node = newNode();
+        node.adjust(key, POLICY, 3 * POLICY.capacity());
+
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        String tokens = redisTemplate.<String, String>opsForHash().get("rate-limit:" + key, "tokens");
+        assertEquals(POLICY.capacity() - 3 * POLICY.capacity(), Long.parseLong(tokens));
+        // Kept until two refills have paid the debt off and a third has filled the bucket
+        assertTrue(redisTemplate.getExpire("rate-limit:" + key, TimeUnit.MILLISECONDS) > 2 * PERIOD.toMillis());
+        assertFalse(newNode().tryConsume(key, POLICY, 1).isConsumed());
+    }
+}